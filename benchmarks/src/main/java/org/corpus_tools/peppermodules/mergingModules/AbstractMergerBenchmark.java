@@ -0,0 +1,93 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import org.corpus_tools.salt.common.SDocument;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Base class of all merger benchmarks. It holds the parameters describing the
+ * size of the synthetic documents, which can be overridden on the command
+ * line, for instance:
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar -p tokens=100000 -p textLength=600000
+ * </pre>
+ * 
+ * The base document contains spans and pointing relations, the other
+ * documents contain structures, which corresponds to merging an
+ * information-structural and a syntactic annotation of the same text.
+ */
+@State(Scope.Thread)
+public abstract class AbstractMergerBenchmark {
+	/** number of textual data sources per document **/
+	@Param("1")
+	public int texts;
+	/** approximate number of characters per text **/
+	@Param("60000")
+	public int textLength;
+	/** number of tokens per text **/
+	@Param("10000")
+	public int tokens;
+	/** number of spans in the base document **/
+	@Param("2000")
+	public int spans;
+	/** number of structures in each other document **/
+	@Param("5000")
+	public int structures;
+	/** number of pointing relations in the base document **/
+	@Param("1000")
+	public int pointingRelations;
+
+	protected SyntheticDocuments generator = null;
+
+	@Setup(Level.Trial)
+	public void createGenerator() {
+		generator = new SyntheticDocuments(texts, textLength, tokens, spans, structures, pointingRelations);
+	}
+
+	/**
+	 * @return a mapper initialized with the default properties, which does not
+	 *         notify a merger about finished documents
+	 */
+	protected MergerMapper createMapper() {
+		MergerMapper mapper = new MergerMapper();
+		mapper.setProperties(new MergerProperties());
+		mapper.initialize();
+		mapper.isTestMode = true;
+		return (mapper);
+	}
+
+	/**
+	 * @return a document containing spans and pointing relations
+	 */
+	protected SDocument createBaseDocument() {
+		return (generator.createDocument("base", true, false, true));
+	}
+
+	/**
+	 * @return a document containing structures
+	 */
+	protected SDocument createOtherDocument(int number) {
+		return (generator.createDocument("other" + number, false, true, false));
+	}
+}
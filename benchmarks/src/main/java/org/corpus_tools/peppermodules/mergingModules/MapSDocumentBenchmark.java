@@ -0,0 +1,76 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.concurrent.TimeUnit;
+
+import org.corpus_tools.pepper.common.DOCUMENT_STATUS;
+import org.corpus_tools.pepper.modules.MappingSubject;
+import org.corpus_tools.salt.common.SDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks merging a complete slot of documents with
+ * {@link MergerMapper#mapSDocument()}, from choosing the base document to
+ * merging the pointing relations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapSDocumentBenchmark extends AbstractMergerBenchmark {
+	/** number of documents in the slot, including the base document **/
+	@Param("3")
+	public int documents;
+	/** number of threads used to merge the other documents **/
+	@Param("1")
+	public int mergeThreads;
+
+	private MergerMapper mapper = null;
+
+	@Setup(Level.Invocation)
+	public void createDocuments() {
+		mapper = createMapper();
+		mapper.getProperties().setPropertyValue(MergerProperties.PROP_MERGE_THREADS, mergeThreads);
+		addSubject(createBaseDocument());
+		for (int i = 1; i < documents; i++) {
+			addSubject(createOtherDocument(i));
+		}
+	}
+
+	private void addSubject(SDocument document) {
+		MappingSubject subject = new MappingSubject();
+		subject.setIdentifier(document.getIdentifier());
+		mapper.getMappingSubjects().add(subject);
+	}
+
+	@Benchmark
+	public DOCUMENT_STATUS mapSDocument() {
+		return (mapper.mapSDocument());
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.corpus_tools.salt.common.SDocument;
+import org.corpus_tools.salt.common.SDocumentGraph;
+import org.corpus_tools.salt.common.STextualDS;
+import org.corpus_tools.salt.common.SToken;
+import org.corpus_tools.salt.core.SNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks merging the pointing relations of the other document into the
+ * base document, which both contain {@link #pointingRelations} pointing
+ * relations between tokens, like two coreference annotations of the same
+ * text. The tokens are aligned and merged in the setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PointingRelationBenchmark extends AbstractMergerBenchmark {
+	private MergerMapper mapper = null;
+	private SDocumentGraph baseGraph = null;
+	private SDocumentGraph otherGraph = null;
+	private Map<SNode, SNode> node2NodeMap = null;
+
+	@Setup(Level.Invocation)
+	public void createDocuments() {
+		mapper = createMapper();
+		SDocument baseDocument = generator.createDocument("base", false, false, true);
+		SDocument otherDocument = generator.createDocument("other", false, false, true);
+		mapper.setBaseDocument(baseDocument);
+		mapper.normalizePrimaryTexts(baseDocument);
+		mapper.normalizePrimaryTexts(otherDocument);
+		baseGraph = baseDocument.getDocumentGraph();
+		otherGraph = otherDocument.getDocumentGraph();
+		node2NodeMap = new IdentityHashMap<>(otherGraph.getNodes().size());
+		for (int i = 0; i < baseGraph.getTextualDSs().size(); i++) {
+			STextualDS baseText = baseGraph.getTextualDSs().get(i);
+			STextualDS otherText = otherGraph.getTextualDSs().get(i);
+			mapper.alignTexts(baseText, otherText, new HashSet<SToken>(), node2NodeMap);
+			mapper.mergeTokens(baseText, otherText, node2NodeMap);
+		}
+	}
+
+	@Benchmark
+	public SDocumentGraph mergeSPointingRelations() {
+		MergeHandler handler = new MergeHandler(node2NodeMap, otherGraph, baseGraph, mapper.getContainer());
+		handler.setProperties((MergerProperties) mapper.getProperties());
+		handler.mergeSPointingRelations(otherGraph, baseGraph);
+		return (baseGraph);
+	}
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.corpus_tools.salt.SaltFactory;
+import org.corpus_tools.salt.common.SDocument;
+import org.corpus_tools.salt.common.SDocumentGraph;
+import org.corpus_tools.salt.common.SPointingRelation;
+import org.corpus_tools.salt.common.SSpan;
+import org.corpus_tools.salt.common.SStructure;
+import org.corpus_tools.salt.common.SStructuredNode;
+import org.corpus_tools.salt.common.STextualDS;
+import org.corpus_tools.salt.common.SToken;
+
+/**
+ * Generates synthetic {@link SDocument}s of a configurable size for the
+ * benchmarks. All documents created by the same generator share the same
+ * primary texts and tokenization, so that they are mergable. The
+ * annotation layers (spans, structures and pointing relations) can be chosen
+ * per document, like the sample documents used in the tests, where one
+ * document contains the syntax and another one the anaphoric relations.
+ * <br/>
+ * The generator is deterministic: the same parameters always produce the same
+ * documents.
+ */
+public class SyntheticDocuments {
+	/** characters the words are made of, including some to be normalized **/
+	private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyzäöüß".toCharArray();
+	/** every n-th token is a punctuation **/
+	private static final int PUNCTUATION_DISTANCE = 10;
+
+	/** number of {@link STextualDS}s per document **/
+	private final int numberOfTexts;
+	/** approximate number of characters per text **/
+	private final int textLength;
+	/** number of tokens per text **/
+	private final int numberOfTokens;
+	/** number of spans per document **/
+	private final int numberOfSpans;
+	/** number of structures per document **/
+	private final int numberOfStructures;
+	/** number of pointing relations per document **/
+	private final int numberOfPointingRelations;
+	/** the generated texts, shared by all documents **/
+	private final List<String> texts;
+	/** the start and end offsets of the tokens for each text **/
+	private final List<int[][]> tokenOffsets;
+
+	public SyntheticDocuments(int numberOfTexts, int textLength, int numberOfTokens, int numberOfSpans, int numberOfStructures, int numberOfPointingRelations) {
+		this.numberOfTexts = Math.max(1, numberOfTexts);
+		this.numberOfTokens = Math.max(1, numberOfTokens);
+		this.textLength = Math.max(this.numberOfTokens * 2, textLength);
+		this.numberOfSpans = numberOfSpans;
+		this.numberOfStructures = numberOfStructures;
+		this.numberOfPointingRelations = numberOfPointingRelations;
+		texts = new ArrayList<>(this.numberOfTexts);
+		tokenOffsets = new ArrayList<>(this.numberOfTexts);
+		for (int i = 0; i < this.numberOfTexts; i++) {
+			createText(new Random(i));
+		}
+	}
+
+	/**
+	 * Creates a text of {@link #textLength} characters containing
+	 * {@link #numberOfTokens} words separated by blanks and computes the
+	 * offsets of the tokens.
+	 */
+	private void createText(Random random) {
+		StringBuilder text = new StringBuilder(textLength + numberOfTokens);
+		int[][] offsets = new int[numberOfTokens][2];
+		// each token is followed by a blank
+		int averageWordLength = Math.max(1, textLength / numberOfTokens - 1);
+		for (int i = 0; i < numberOfTokens; i++) {
+			offsets[i][0] = text.length();
+			if (i % PUNCTUATION_DISTANCE == PUNCTUATION_DISTANCE - 1) {
+				text.append('.');
+			} else {
+				int wordLength = Math.max(1, averageWordLength - 1 + random.nextInt(3));
+				for (int j = 0; j < wordLength; j++) {
+					text.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+				}
+			}
+			offsets[i][1] = text.length();
+			text.append(' ');
+		}
+		texts.add(text.toString());
+		tokenOffsets.add(offsets);
+	}
+
+	/**
+	 * Creates a document containing the texts and tokens and the passed
+	 * annotation layers.
+	 * 
+	 * @param id
+	 *            the id of the document
+	 * @param withSpans
+	 *            if true, {@link #numberOfSpans} spans are created
+	 * @param withStructures
+	 *            if true, {@link #numberOfStructures} structures are created
+	 * @param withPointingRelations
+	 *            if true, {@link #numberOfPointingRelations} pointing relations
+	 *            are created
+	 * @return
+	 */
+	public SDocument createDocument(String id, boolean withSpans, boolean withStructures, boolean withPointingRelations) {
+		Random random = new Random(id.hashCode());
+		SDocument document = SaltFactory.createSDocument();
+		document.setId(id);
+		document.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		SDocumentGraph graph = document.getDocumentGraph();
+
+		List<List<SToken>> tokensPerText = new ArrayList<>(numberOfTexts);
+		for (int i = 0; i < numberOfTexts; i++) {
+			STextualDS text = graph.createTextualDS(texts.get(i));
+			List<SToken> tokens = new ArrayList<>(numberOfTokens);
+			for (int[] offset : tokenOffsets.get(i)) {
+				tokens.add(graph.createToken(text, offset[0], offset[1]));
+			}
+			tokensPerText.add(tokens);
+		}
+		List<SStructuredNode> pointingTargets = new ArrayList<>();
+		for (List<SToken> tokens : tokensPerText) {
+			pointingTargets.addAll(tokens);
+		}
+		if (withSpans) {
+			for (int i = 0; i < numberOfSpans; i++) {
+				List<SToken> tokens = tokensPerText.get(i % numberOfTexts);
+				int start = random.nextInt(tokens.size());
+				int end = Math.min(tokens.size(), start + 1 + random.nextInt(3));
+				SSpan span = graph.createSpan(tokens.subList(start, end));
+				span.createAnnotation(null, "Inf-Struct", (i % 2 == 0) ? "topic" : "comment");
+				pointingTargets.add(span);
+			}
+		}
+		if (withStructures) {
+			for (int i = 0; i < numberOfTexts; i++) {
+				int quota = numberOfStructures / numberOfTexts + ((i < numberOfStructures % numberOfTexts) ? 1 : 0);
+				createStructures(graph, tokensPerText.get(i), quota);
+			}
+		}
+		if (withPointingRelations) {
+			for (int i = 0; i < numberOfPointingRelations; i++) {
+				SPointingRelation relation = SaltFactory.createSPointingRelation();
+				relation.setSource(pointingTargets.get(random.nextInt(pointingTargets.size())));
+				relation.setTarget(pointingTargets.get(random.nextInt(pointingTargets.size())));
+				relation.setType("anaphoric");
+				graph.addRelation(relation);
+			}
+		}
+		return (document);
+	}
+
+	/**
+	 * Creates binary trees over the passed tokens, level by level, until the
+	 * passed number of structures is reached. When a tree is complete, the
+	 * next one starts again on the tokens.
+	 */
+	private void createStructures(SDocumentGraph graph, List<SToken> tokens, int quota) {
+		int created = 0;
+		List<SStructuredNode> level = new ArrayList<SStructuredNode>(tokens);
+		while (created < quota) {
+			List<SStructuredNode> nextLevel = new ArrayList<>(level.size() / 2 + 1);
+			for (int i = 0; (i < level.size()) && (created < quota); i += 2) {
+				SStructure structure;
+				if (i + 1 < level.size()) {
+					structure = graph.createStructure(level.get(i), level.get(i + 1));
+				} else {
+					structure = graph.createStructure(level.get(i));
+				}
+				structure.createAnnotation(null, "cat", (nextLevel.size() % 2 == 0) ? "NP" : "VP");
+				nextLevel.add(structure);
+				created++;
+			}
+			if (nextLevel.size() <= 1) {
+				level = new ArrayList<SStructuredNode>(tokens);
+			} else {
+				level = nextLevel;
+			}
+		}
+	}
+}
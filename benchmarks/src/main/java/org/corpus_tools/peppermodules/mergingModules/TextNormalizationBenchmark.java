@@ -0,0 +1,84 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.concurrent.TimeUnit;
+
+import org.corpus_tools.salt.common.SDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the normalization of primary texts and the search of a normalized
+ * text in another one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextNormalizationBenchmark extends AbstractMergerBenchmark {
+	private SDocument document = null;
+	private MergerMapper mapper = null;
+	/** normalized text to search in **/
+	private String stringToSearchIn = null;
+	/** the second half of the normalized other text **/
+	private String stringToSearchFor = null;
+
+	@Setup(Level.Trial)
+	public void createDocuments() {
+		document = createOtherDocument(0);
+		mapper = createMapper();
+		SDocument baseDocument = createBaseDocument();
+		mapper.normalizePrimaryTexts(baseDocument);
+		mapper.normalizePrimaryTexts(document);
+		stringToSearchIn = mapper.getContainer().getNormalizedText(baseDocument.getDocumentGraph().getTextualDSs().get(0));
+		String otherText = mapper.getContainer().getNormalizedText(document.getDocumentGraph().getTextualDSs().get(0));
+		stringToSearchFor = otherText.substring(otherText.length() / 2);
+	}
+
+	/**
+	 * Normalizes the texts of the document with a new mapper, so that the
+	 * {@link TokenMergeContainer} is empty for each invocation.
+	 */
+	@Benchmark
+	public MergerMapper normalizePrimaryTexts() {
+		MergerMapper normalizer = new MergerMapper();
+		normalizer.setProperties(mapper.getProperties());
+		normalizer.initialize();
+		normalizer.normalizePrimaryTexts(document);
+		return (normalizer);
+	}
+
+	@Benchmark
+	public int indexOfOmitChars_textAligner() {
+		return (mapper.indexOfOmitChars(stringToSearchIn, stringToSearchFor, true, ((MergerProperties) mapper.getProperties()).getPunctuations()));
+	}
+
+	@Benchmark
+	public int indexOfOmitChars_naive() {
+		return (mapper.indexOfOmitChars(stringToSearchIn, stringToSearchFor, false, ((MergerProperties) mapper.getProperties()).getPunctuations()));
+	}
+}
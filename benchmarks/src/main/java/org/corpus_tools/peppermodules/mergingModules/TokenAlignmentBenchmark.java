@@ -0,0 +1,82 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.corpus_tools.salt.common.SDocument;
+import org.corpus_tools.salt.common.STextualDS;
+import org.corpus_tools.salt.common.SToken;
+import org.corpus_tools.salt.core.SNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the alignment of the tokens of two normalized texts and the
+ * merging of the tokens of the other text into the base text. Since merging
+ * modifies the base document, fresh documents are created for each
+ * invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenAlignmentBenchmark extends AbstractMergerBenchmark {
+	private MergerMapper mapper = null;
+	private STextualDS baseText = null;
+	private STextualDS otherText = null;
+	private Set<SToken> nonEquivalentTokens = null;
+	private Map<SNode, SNode> equivalenceMap = null;
+
+	@Setup(Level.Invocation)
+	public void createDocuments() {
+		mapper = createMapper();
+		SDocument baseDocument = createBaseDocument();
+		SDocument otherDocument = createOtherDocument(0);
+		mapper.setBaseDocument(baseDocument);
+		mapper.normalizePrimaryTexts(baseDocument);
+		mapper.normalizePrimaryTexts(otherDocument);
+		baseText = baseDocument.getDocumentGraph().getTextualDSs().get(0);
+		otherText = otherDocument.getDocumentGraph().getTextualDSs().get(0);
+		nonEquivalentTokens = new HashSet<SToken>(otherDocument.getDocumentGraph().getTokens());
+		equivalenceMap = new HashMap<>();
+	}
+
+	@Benchmark
+	public boolean alignTexts() {
+		return (mapper.alignTexts(baseText, otherText, nonEquivalentTokens, equivalenceMap));
+	}
+
+	@Benchmark
+	public Map<SNode, SNode> mergeTokens() {
+		mapper.mergeTokens(baseText, otherText, equivalenceMap);
+		return (equivalenceMap);
+	}
+}
@@ -0,0 +1,326 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link MultiPatternTextAligner} based on the Aho-Corasick algorithm. The
+ * strings to search for are compiled into a trie with failure links, so that
+ * all of them are found in a single scan of <code>stringToSearchIn</code>.
+ * Like in {@link KmpTextAligner}, the omit characters are skipped on the fly
+ * and the positions of the last matched characters are kept in a ring buffer
+ * to map a match back to the original string. The search is linear in the
+ * length of all strings plus the number of reported matches.
+ */
+public class AhoCorasickTextAligner implements MultiPatternTextAligner {
+	/**
+	 * A single string is searched with {@link KmpTextAligner}, a trie only
+	 * pays off for many strings
+	 **/
+	private final KmpTextAligner singlePatternAligner = new KmpTextAligner();
+
+	@Override
+	public int indexOf(String stringToSearchIn, String stringToSearchFor, TextNormalizer normalizer) {
+		return singlePatternAligner.indexOf(stringToSearchIn, stringToSearchFor, normalizer);
+	}
+
+	@Override
+	public int[] indexOf(String stringToSearchIn, List<String> stringsToSearchFor, TextNormalizer normalizer) {
+		return indexOf(Collections.singletonList(stringToSearchIn), stringsToSearchFor, normalizer)[0];
+	}
+
+	@Override
+	public int[][] indexOf(List<String> stringsToSearchIn, List<String> stringsToSearchFor, TextNormalizer normalizer) {
+		Trie trie = new Trie(stringsToSearchFor.size());
+		boolean[] isEmpty = new boolean[stringsToSearchFor.size()];
+		int numOfPatterns = 0;
+		int maxPatternLength = 0;
+		for (int i = 0; i < stringsToSearchFor.size(); i++) {
+			int length = trie.add(stringsToSearchFor.get(i), i, normalizer);
+			if (length == 0) {
+				isEmpty[i] = true;
+			} else {
+				numOfPatterns++;
+				maxPatternLength = Math.max(maxPatternLength, length);
+			}
+		}
+		trie.computeFailureLinks();
+		int[][] retVal = new int[stringsToSearchIn.size()][];
+		for (int i = 0; i < stringsToSearchIn.size(); i++) {
+			String stringToSearchIn = stringsToSearchIn.get(i);
+			retVal[i] = new int[stringsToSearchFor.size()];
+			Arrays.fill(retVal[i], -1);
+			for (int pattern = 0; pattern < isEmpty.length; pattern++) {
+				if (isEmpty[pattern]) {
+					// the empty string is found at the first char which is
+					// not omitted
+					retVal[i][pattern] = indexOfFirstNotOmitted(stringToSearchIn, normalizer);
+				}
+			}
+			if (numOfPatterns > 0) {
+				search(trie, stringToSearchIn, numOfPatterns, maxPatternLength, normalizer, retVal[i]);
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Scans <code>stringToSearchIn</code> once and stores the first
+	 * occurence of each pattern in <code>retVal</code>. The scan stops, when
+	 * all patterns have been found.
+	 */
+	private static void search(Trie trie, String stringToSearchIn, int numOfPatterns, int maxPatternLength, TextNormalizer normalizer, int[] retVal) {
+		// positions in stringToSearchIn of the last maxPatternLength not
+		// omitted chars
+		int[] positions = new int[maxPatternLength];
+		int numOfNotOmitted = 0;
+		int state = 0;
+		for (int i = 0; (i < stringToSearchIn.length()) && (numOfPatterns > 0); i++) {
+			char c = stringToSearchIn.charAt(i);
+			if (normalizer.isPunctuation(c)) {
+				continue;
+			}
+			positions[numOfNotOmitted % maxPatternLength] = i;
+			numOfNotOmitted++;
+			state = trie.next(state, c);
+			// report all patterns ending here, following the output links
+			for (int output = (trie.isEnd(state)) ? state : trie.outputLink[state]; output > 0; output = trie.outputLink[output]) {
+				for (int pattern = trie.firstPattern[output]; pattern != -1; pattern = trie.nextPattern[pattern]) {
+					if (retVal[pattern] == -1) {
+						// the first char of the match
+						retVal[pattern] = positions[(numOfNotOmitted - trie.depth[output]) % maxPatternLength];
+						numOfPatterns--;
+					}
+				}
+			}
+		}
+	}
+
+	private static int indexOfFirstNotOmitted(String string, TextNormalizer normalizer) {
+		for (int i = 0; i < string.length(); i++) {
+			if (!normalizer.isPunctuation(string.charAt(i))) {
+				return i;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * The trie of the strings to search for. The states are numbered, the
+	 * root is 0. The properties of a state are stored in arrays indexed by
+	 * its number.
+	 */
+	private static class Trie {
+		/**
+		 * transitions as open addressing hash table, the key is the state and
+		 * the char, -1 marks a free slot
+		 **/
+		private long[] transitionKeys = newTransitionKeys(64);
+		/** the target state of each transition **/
+		private int[] transitionTargets = new int[64];
+		/** number of transitions **/
+		private int numOfTransitions = 0;
+		/** number of chars from the root to each state **/
+		private int[] depth = new int[16];
+		/**
+		 * the state of the longest proper suffix of each state, which is also
+		 * in the trie
+		 **/
+		private int[] failure = new int[16];
+		/**
+		 * the next state reachable via failure links, at which a pattern ends,
+		 * or 0
+		 **/
+		private int[] outputLink = new int[16];
+		/** first pattern ending in each state or -1 **/
+		private int[] firstPattern = new int[16];
+		/** next pattern ending in the same state or -1, indexed by pattern **/
+		private int[] nextPattern;
+		/** the parent of each state **/
+		private int[] parent = new int[16];
+		/** the char of the transition from the parent to each state **/
+		private char[] label = new char[16];
+		/** number of states **/
+		private int size = 1;
+
+		private Trie(int numOfPatterns) {
+			Arrays.fill(firstPattern, -1);
+			nextPattern = new int[Math.max(1, numOfPatterns)];
+		}
+
+		private static long key(int state, char c) {
+			return (((long) state) << 16) | c;
+		}
+
+		private static long[] newTransitionKeys(int capacity) {
+			long[] keys = new long[capacity];
+			Arrays.fill(keys, -1);
+			return keys;
+		}
+
+		private static int slot(long key, int capacity) {
+			return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (capacity - 1);
+		}
+
+		/**
+		 * @return the state reached from the passed state by the passed char
+		 *         or -1, if there is no such transition
+		 */
+		private int getTransition(int state, char c) {
+			long key = key(state, c);
+			int mask = transitionKeys.length - 1;
+			for (int slot = slot(key, transitionKeys.length); transitionKeys[slot] != -1; slot = (slot + 1) & mask) {
+				if (transitionKeys[slot] == key) {
+					return transitionTargets[slot];
+				}
+			}
+			return -1;
+		}
+
+		private void putTransition(int state, char c, int target) {
+			if ((numOfTransitions + 1) * 2 > transitionKeys.length) {
+				// keep the load factor below 0.5
+				long[] oldKeys = transitionKeys;
+				int[] oldTargets = transitionTargets;
+				transitionKeys = newTransitionKeys(oldKeys.length * 2);
+				transitionTargets = new int[oldKeys.length * 2];
+				for (int i = 0; i < oldKeys.length; i++) {
+					if (oldKeys[i] != -1) {
+						insert(oldKeys[i], oldTargets[i]);
+					}
+				}
+			}
+			insert(key(state, c), target);
+			numOfTransitions++;
+		}
+
+		private void insert(long key, int target) {
+			int mask = transitionKeys.length - 1;
+			int slot = slot(key, transitionKeys.length);
+			while (transitionKeys[slot] != -1) {
+				slot = (slot + 1) & mask;
+			}
+			transitionKeys[slot] = key;
+			transitionTargets[slot] = target;
+		}
+
+		/**
+		 * Adds the passed string without omit characters as pattern with the
+		 * passed number.
+		 * 
+		 * @return the length of the pattern
+		 */
+		private int add(String string, int pattern, TextNormalizer normalizer) {
+			int state = 0;
+			int length = 0;
+			for (int i = 0; i < string.length(); i++) {
+				char c = string.charAt(i);
+				if (normalizer.isPunctuation(c)) {
+					continue;
+				}
+				length++;
+				int child = getTransition(state, c);
+				if (child == -1) {
+					child = size++;
+					if (size > depth.length) {
+						int newLength = depth.length * 2;
+						depth = Arrays.copyOf(depth, newLength);
+						failure = Arrays.copyOf(failure, newLength);
+						outputLink = Arrays.copyOf(outputLink, newLength);
+						parent = Arrays.copyOf(parent, newLength);
+						label = Arrays.copyOf(label, newLength);
+						firstPattern = Arrays.copyOf(firstPattern, newLength);
+						Arrays.fill(firstPattern, newLength / 2, newLength, -1);
+					}
+					depth[child] = length;
+					parent[child] = state;
+					label[child] = c;
+					putTransition(state, c, child);
+				}
+				state = child;
+			}
+			if (length > 0) {
+				nextPattern[pattern] = firstPattern[state];
+				firstPattern[state] = pattern;
+			}
+			return length;
+		}
+
+		private boolean isEnd(int state) {
+			return firstPattern[state] != -1;
+		}
+
+		/**
+		 * @return the state reached from the passed state by the passed char,
+		 *         following the failure links if necessary
+		 */
+		private int next(int state, char c) {
+			while (true) {
+				int child = getTransition(state, c);
+				if (child != -1) {
+					return child;
+				}
+				if (state == 0) {
+					return 0;
+				}
+				state = failure[state];
+			}
+		}
+
+		/**
+		 * Computes the failure and output links in the order of the depth of
+		 * the states, so that the links of all states being less deep are
+		 * known.
+		 */
+		private void computeFailureLinks() {
+			// sort the states by depth (counting sort)
+			int maxDepth = 0;
+			for (int state = 1; state < size; state++) {
+				maxDepth = Math.max(maxDepth, depth[state]);
+			}
+			int[] firstOfDepth = new int[maxDepth + 2];
+			for (int state = 1; state < size; state++) {
+				firstOfDepth[depth[state] + 1]++;
+			}
+			for (int d = 1; d < firstOfDepth.length; d++) {
+				firstOfDepth[d] += firstOfDepth[d - 1];
+			}
+			int[] statesByDepth = new int[size - 1];
+			for (int state = 1; state < size; state++) {
+				statesByDepth[firstOfDepth[depth[state]]++] = state;
+			}
+			for (int state : statesByDepth) {
+				int fail = 0;
+				if (depth[state] > 1) {
+					fail = failure[parent[state]];
+					int child = getTransition(fail, label[state]);
+					while ((child == -1) && (fail != 0)) {
+						fail = failure[fail];
+						child = getTransition(fail, label[state]);
+					}
+					fail = (child == -1) ? 0 : child;
+				}
+				failure[state] = fail;
+				outputLink[state] = (isEnd(fail)) ? fail : outputLink[fail];
+			}
+		}
+	}
+}
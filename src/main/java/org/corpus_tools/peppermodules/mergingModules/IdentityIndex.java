@@ -0,0 +1,164 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Assigns dense ordinals 0..n-1 to objects in the order they are added.
+ * Objects are compared by identity, which is what Salt does for nodes and
+ * relations anyway. The lookup table is an open addressing hash table of
+ * plain arrays, so neither the objects nor their ordinals are wrapped into
+ * entry objects or boxed integers. This allows to store further data of the
+ * objects in parallel primitive arrays indexed by the ordinal.
+ * 
+ * @param <T>
+ *            type of indexed objects
+ */
+class IdentityIndex<T> {
+	/** the objects by their ordinal **/
+	private Object[] objects;
+	/** number of indexed objects **/
+	private int size = 0;
+	/** hash table of ordinal+1, 0 marks a free slot **/
+	private int[] slots;
+
+	public IdentityIndex() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize
+	 *            number of objects expected to be added
+	 */
+	public IdentityIndex(int expectedSize) {
+		objects = new Object[Math.max(expectedSize, 4)];
+		slots = new int[tableSizeFor(objects.length)];
+	}
+
+	/** table size being a power of two with a load factor of at most 0.5 **/
+	private static int tableSizeFor(int size) {
+		return Integer.highestOneBit(Math.max(size, 2) * 2 - 1) * 2;
+	}
+
+	private static int hash(Object object, int mask) {
+		int h = System.identityHashCode(object);
+		// spread the bits, identity hash codes are not well distributed in
+		// the lower bits
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		return h & mask;
+	}
+
+	/**
+	 * @return the ordinal of the passed object or -1, if it was not added
+	 */
+	public int getOrdinal(T object) {
+		int mask = slots.length - 1;
+		for (int i = hash(object, mask);; i = (i + 1) & mask) {
+			int slot = slots[i];
+			if (slot == 0) {
+				return -1;
+			}
+			if (objects[slot - 1] == object) {
+				return slot - 1;
+			}
+		}
+	}
+
+	/**
+	 * Adds the passed object, if it was not added before.
+	 * 
+	 * @return the ordinal of the passed object
+	 */
+	public int add(T object) {
+		int mask = slots.length - 1;
+		int i = hash(object, mask);
+		for (;; i = (i + 1) & mask) {
+			int slot = slots[i];
+			if (slot == 0) {
+				break;
+			}
+			if (objects[slot - 1] == object) {
+				return slot - 1;
+			}
+		}
+		if (size == objects.length) {
+			objects = Arrays.copyOf(objects, size * 2);
+		}
+		objects[size] = object;
+		size++;
+		if (size * 2 > slots.length) {
+			rehash(tableSizeFor(size));
+		} else {
+			slots[i] = size;
+		}
+		return size - 1;
+	}
+
+	private void rehash(int tableSize) {
+		slots = new int[tableSize];
+		int mask = tableSize - 1;
+		for (int ordinal = 0; ordinal < size; ordinal++) {
+			int i = hash(objects[ordinal], mask);
+			while (slots[i] != 0) {
+				i = (i + 1) & mask;
+			}
+			slots[i] = ordinal + 1;
+		}
+	}
+
+	/**
+	 * @return the object having the passed ordinal
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(int ordinal) {
+		if (ordinal >= size) {
+			throw new IndexOutOfBoundsException("ordinal: " + ordinal + ", size: " + size);
+		}
+		return (T) objects[ordinal];
+	}
+
+	/**
+	 * @return number of indexed objects
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return an unmodifiable view of all indexed objects ordered by their
+	 *         ordinal
+	 */
+	public List<T> asList() {
+		return new AbstractList<T>() {
+			@Override
+			public T get(int index) {
+				return IdentityIndex.this.get(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+}
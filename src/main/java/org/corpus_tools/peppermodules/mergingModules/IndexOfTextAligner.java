@@ -0,0 +1,66 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The original {@link TextAligner} of the merger. All omit characters are
+ * removed from both strings, {@link String#indexOf(String)} is used for the
+ * search and the found index is mapped back via a position list. Since
+ * {@link String#indexOf(String)} is a naive search, this is quadratic in the
+ * worst case. Use {@link KmpTextAligner} for long texts.
+ * 
+ * @author Mario Frank
+ * @author Florian Zipser
+ */
+public class IndexOfTextAligner implements TextAligner {
+	@Override
+	public int indexOf(String stringToSearchIn, String stringToSearchFor, TextNormalizer normalizer) {
+		/* remove all omit chars from the stringToSearchFor */
+		StringBuilder builder = new StringBuilder();
+		char[] chr = stringToSearchFor.toCharArray();
+		for (char sourceChar : chr) {
+			if (!normalizer.isPunctuation(sourceChar)) {
+				builder.append(sourceChar);
+			}
+		}
+		String sourceString = builder.toString();
+
+		builder = new StringBuilder();
+		List<Integer> normalizedToOriginalMapping = new ArrayList<>();
+		int start = 0;
+		char[] chr2 = stringToSearchIn.toCharArray();
+		for (char targetChar : chr2) {
+			if (!normalizer.isPunctuation(targetChar)) { // no omit char
+				normalizedToOriginalMapping.add(start);
+				builder.append(targetChar);
+			} else { // omit char
+			}
+			start += 1;
+		}
+		String targetString = builder.toString();
+		int index = targetString.indexOf(sourceString);
+		if (index != -1) {
+			return normalizedToOriginalMapping.get(index);
+		} else {
+			return index;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+/**
+ * A {@link TextAligner} based on the Knuth-Morris-Pratt algorithm. The omit
+ * characters are skipped on the fly, so neither of the two strings is copied.
+ * While scanning <code>stringToSearchIn</code> the positions of the last
+ * matched characters are kept in a ring buffer, which is the part of the
+ * punctuation-skipping position map needed to map the match back to the
+ * original string. The search is linear in the length of both strings.
+ */
+public class KmpTextAligner implements TextAligner {
+	@Override
+	public int indexOf(String stringToSearchIn, String stringToSearchFor, TextNormalizer normalizer) {
+		char[] pattern = removeOmitChars(stringToSearchFor, normalizer);
+		int patternLength = pattern.length;
+		if (patternLength == 0) {
+			// the empty string is found at the first char which is not omitted
+			for (int i = 0; i < stringToSearchIn.length(); i++) {
+				if (!normalizer.isPunctuation(stringToSearchIn.charAt(i))) {
+					return i;
+				}
+			}
+			return 0;
+		}
+		int[] failure = computeFailureFunction(pattern);
+		// positions in stringToSearchIn of the last patternLength not omitted
+		// chars
+		int[] positions = new int[patternLength];
+		int numOfNotOmitted = 0;
+		int matched = 0;
+		for (int i = 0; i < stringToSearchIn.length(); i++) {
+			char c = stringToSearchIn.charAt(i);
+			if (normalizer.isPunctuation(c)) {
+				continue;
+			}
+			positions[numOfNotOmitted % patternLength] = i;
+			numOfNotOmitted++;
+			while ((matched > 0) && (pattern[matched] != c)) {
+				matched = failure[matched - 1];
+			}
+			if (pattern[matched] == c) {
+				matched++;
+			}
+			if (matched == patternLength) {
+				// the first char of the match is the oldest entry of the ring
+				// buffer
+				return positions[numOfNotOmitted % patternLength];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the chars of the passed string without the omit chars.
+	 */
+	private static char[] removeOmitChars(String string, TextNormalizer normalizer) {
+		char[] chars = new char[string.length()];
+		int length = 0;
+		for (int i = 0; i < string.length(); i++) {
+			char c = string.charAt(i);
+			if (!normalizer.isPunctuation(c)) {
+				chars[length++] = c;
+			}
+		}
+		if (length == chars.length) {
+			return chars;
+		}
+		char[] retVal = new char[length];
+		System.arraycopy(chars, 0, retVal, 0, length);
+		return retVal;
+	}
+
+	/**
+	 * Computes the KMP failure function: the entry at index i is the length
+	 * of the longest proper prefix of <code>pattern[0..i]</code>, which also is
+	 * a suffix of it.
+	 */
+	private static int[] computeFailureFunction(char[] pattern) {
+		int[] failure = new int[pattern.length];
+		int k = 0;
+		for (int i = 1; i < pattern.length; i++) {
+			while ((k > 0) && (pattern[k] != pattern[i])) {
+				k = failure[k - 1];
+			}
+			if (pattern[k] == pattern[i]) {
+				k++;
+			}
+			failure[i] = k;
+		}
+		return failure;
+	}
+}
@@ -18,41 +18,47 @@
 package org.corpus_tools.peppermodules.mergingModules;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.corpus_tools.pepper.modules.exceptions.PepperModuleException;
 import org.corpus_tools.salt.SALT_TYPE;
 import org.corpus_tools.salt.SaltFactory;
 import org.corpus_tools.salt.common.SDocumentGraph;
+import org.corpus_tools.salt.common.SDominanceRelation;
 import org.corpus_tools.salt.common.SPointingRelation;
 import org.corpus_tools.salt.common.SSpan;
+import org.corpus_tools.salt.common.SSpanningRelation;
 import org.corpus_tools.salt.common.SStructure;
 import org.corpus_tools.salt.common.SStructuredNode;
 import org.corpus_tools.salt.common.STextualDS;
 import org.corpus_tools.salt.common.STextualRelation;
 import org.corpus_tools.salt.common.SToken;
-import org.corpus_tools.salt.core.GraphTraverseHandler;
 import org.corpus_tools.salt.core.SAnnotation;
-import org.corpus_tools.salt.core.SGraph.GRAPH_TRAVERSE_TYPE;
 import org.corpus_tools.salt.core.SLayer;
 import org.corpus_tools.salt.core.SMetaAnnotation;
 import org.corpus_tools.salt.core.SNode;
 import org.corpus_tools.salt.core.SRelation;
 import org.corpus_tools.salt.graph.IdentifiableElement;
-import org.corpus_tools.salt.graph.Relation;
 import org.corpus_tools.salt.util.SaltUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This class handles the merging of higher document-structure, which means the
- * bottom-up traversal. stores all {@link SRelation} objects which have already
- * been traversed, this is necessary, to first detect cycles and second to not
- * traverse a super tree twice, e.g:
+ * This class handles the merging of higher document-structure. The nodes of
+ * the other graph are merged bottom-up, level by level: first the tokens, then
+ * the spans and then the structures ordered by their height, e.g:
  * 
  * <pre>
  *           a
@@ -62,15 +68,16 @@ import org.slf4j.LoggerFactory;
  *         c   d
  * </pre>
  * 
- * In this sample, the relation between a and b should be traversed only once.
- * With normal bottom-up it would be traversed twice, therefore we need to store
- * already traversed relations to avoid this.
+ * In this sample, the tokens c and d are merged first, then b and finally a.
+ * Each node is merged exactly once, even if it is dominated by several nodes.
+ * The levels are processed with plain loops, so deep trees do not need a deep
+ * stack.
  * 
  * @author Florian Zipser
  * @author Jakob Schmolling
  * 
  */
-class MergeHandler implements GraphTraverseHandler {
+class MergeHandler {
 	public static final Logger logger = LoggerFactory.getLogger(Merger.MODULE_NAME);
 	/** graph whose nodes and relations are to copy **/
 	private SDocumentGraph otherGraph = null;
@@ -128,7 +135,11 @@ class MergeHandler implements GraphTraverseHandler {
 
 	/**
 	 * Copies all {@link SPointingRelation}s from <code>otherGraph</code> to
-	 * <code>baseGraph</code> and even copies their annotations and layers.
+	 * <code>baseGraph</code> and even copies their annotations and layers. A
+	 * relation is skipped, when the base graph already contains a pointing
+	 * relation of the same type between the same nodes. The existing pointing
+	 * relations of the base graph are indexed once, so that each relation is
+	 * checked in constant time.
 	 * 
 	 * @param otherGraph
 	 *            graph containing the {@link SPointingRelation}s to be copied
@@ -136,7 +147,15 @@ class MergeHandler implements GraphTraverseHandler {
 	 *            target graph
 	 */
 	public void mergeSPointingRelations(SDocumentGraph otherGraph, SDocumentGraph baseGraph) {
-		for (SPointingRelation otherRel : otherGraph.getPointingRelations()) {
+		List<SPointingRelation> otherRels = otherGraph.getPointingRelations();
+		if (otherRels.isEmpty()) {
+			return;
+		}
+		Set<PointingRelationKey> baseRels = new HashSet<>();
+		for (SPointingRelation baseRel : baseGraph.getPointingRelations()) {
+			baseRels.add(new PointingRelationKey(baseRel.getSource(), baseRel.getTarget(), baseRel.getType()));
+		}
+		for (SPointingRelation otherRel : otherRels) {
 			SNode baseSourceNode = node2NodeMap.get(otherRel.getSource());
 			SNode baseTargetNode = node2NodeMap.get(otherRel.getTarget());
 
@@ -144,148 +163,401 @@ class MergeHandler implements GraphTraverseHandler {
 				logger.warn("[Merger] Cannot merge SPointingRelation '" + otherRel.getId() + "', because no matching node was found in target graph for source node '" + otherRel.getSource() + "'. ");
 			} else if (baseTargetNode == null) {
 				logger.warn("[Merger] Cannot merge SPointingRelation '" + otherRel.getId() + "', because no matching node was found in source graph for source node '" + otherRel.getTarget() + "'. ");
+			} else if (baseRels.add(new PointingRelationKey(baseSourceNode, baseTargetNode, otherRel.getType()))) {
+				// base graph does not contain an equal relation yet
+				SPointingRelation baseRel = SaltFactory.createSPointingRelation();
+				baseRel.setSource((SStructuredNode) baseSourceNode);
+				baseRel.setTarget((SStructuredNode) baseTargetNode);
+				baseRel.setType(otherRel.getType());
+				SaltUtil.moveAnnotations(otherRel, baseRel);
+				SaltUtil.moveMetaAnnotations(otherRel, baseRel);
+				baseGraph.addRelation(baseRel);
+				copySLayers(otherRel, baseRel);
+			}
+		}
+		flushLayers();
+	}
+
+	/**
+	 * Key of a pointing relation, consisting of its source, its target and
+	 * its type. Two keys are equal, if they refer to the same nodes and have
+	 * equal types.
+	 */
+	private static class PointingRelationKey {
+		private final SNode source;
+		private final SNode target;
+		private final String type;
+
+		private PointingRelationKey(SNode source, SNode target, String type) {
+			this.source = source;
+			this.target = target;
+			this.type = type;
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * (31 * System.identityHashCode(source) + System.identityHashCode(target)) + ((type == null) ? 0 : type.hashCode()));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PointingRelationKey)) {
+				return false;
+			}
+			PointingRelationKey other = (PointingRelationKey) obj;
+			return ((source == other.source) && (target == other.target) && ((type == null) ? other.type == null : type.equals(other.type)));
+		}
+	}
+
+	/**
+	 * Merges the {@link SToken}, {@link SSpan} and {@link SStructure} nodes of
+	 * the other graph into the base graph. The nodes are processed level by
+	 * level, see {@link #computeLevels()}, so that the children of a node are
+	 * always merged before the node itself. Pointing relations are not merged,
+	 * see {@link #mergeSPointingRelations(SDocumentGraph, SDocumentGraph)}.
+	 */
+	public void mergeDocumentStructure() {
+		for (List<SNode> level : computeLevels()) {
+			if ((!level.isEmpty()) && (level.get(0) instanceof SToken)) {
+				mergeTokens(level);
+			} else if ((executor != null) && (parallelism > 1) && (level.size() >= MIN_PARALLEL_LEVEL_SIZE) && (!(level.get(0) instanceof SToken)) && (!getProperties().isCopyNodes())) {
+				mergeLevelInParallel(level);
 			} else {
-				List<SRelation<SNode, SNode>> rels = baseGraph.getRelations(baseSourceNode.getId(), baseTargetNode.getId());
-				boolean skip = false;
-				if ((rels != null) && (rels.size() > 0)) {
-					for (Relation rel : rels) {
-						if (rel instanceof SPointingRelation) {
-							// there is already a pointing relation between
-							// nodes
-
-							if (((SPointingRelation) rel).getType().equals(otherRel.getType())) {
-								// skip relation when base graph already
-								// contains an
-								// equal relation
-								skip = true;
-								break;
-							}
-						}
+				for (SNode otherNode : level) {
+					mergeNode(otherNode);
+				}
+			}
+			flushLayers();
+		}
+	}
+
+	/**
+	 * Merges the passed tokens of the other graph into the base graph. Tokens
+	 * having no equivalent in base graph are created at once by a
+	 * {@link TokenBatch} at the position computed by the alignment of their
+	 * texts.
+	 * 
+	 * @param otherTokens
+	 *            tokens of the other graph
+	 */
+	private void mergeTokens(List<SNode> otherTokens) {
+		TokenBatch newTokens = new TokenBatch(baseGraph);
+		List<SNode> newTokenSources = new ArrayList<>();
+		for (SNode currNode : otherTokens) {
+			SNode baseNode = node2NodeMap.get(currNode);
+			if (baseNode != null) {
+				// Match found
+				applyMerge(currNode, SALT_TYPE.STOKEN, Collections.<SNode> emptyList(), baseNode);
+			} else {
+				STextualRelation textRel = null;
+				for (SRelation rel : currNode.getOutRelations()) {
+					if (rel instanceof STextualRelation) {
+						textRel = (STextualRelation) rel;
+						break;
 					}
 				}
-				if (!skip) {
-					SPointingRelation baseRel = SaltFactory.createSPointingRelation();
-					baseRel.setSource((SStructuredNode) baseSourceNode);
-					baseRel.setTarget((SStructuredNode) baseTargetNode);
-					baseRel.setType(otherRel.getType());
-					SaltUtil.moveAnnotations(otherRel, baseRel);
-					SaltUtil.moveMetaAnnotations(otherRel, baseRel);
-					baseGraph.addRelation(baseRel);
-					copySLayers(otherRel, baseRel);
+				// Find the alignment of the current token to create a new
+				// one
+				STextualDS baseText = (STextualDS) node2NodeMap.get(textRel.getTarget());
+				Integer start = container.getAlignedTokenStart(baseText, (SToken) currNode);
+				Integer length = container.getAlignedTokenLength(baseText, (SToken) currNode);
+				if ((start != -1) && (length != -1)) {
+					newTokens.add(baseText, start, start + length);
+					newTokenSources.add(currNode);
+				} else {
+					logger.warn("[Merger] Could not create token in target graph matching to node '" + SaltUtil.getGlobalId(currNode.getIdentifier()) + "', because start (" + start + ") or length (" + length + ") was empty. ");
 				}
 			}
 		}
+		List<SToken> createdTokens = newTokens.create();
+		for (int i = 0; i < createdTokens.size(); i++) {
+			SNode currNode = newTokenSources.get(i);
+			SNode baseNode = createdTokens.get(i);
+			moveAnnosForRelations(currNode, baseNode);
+			applyMerge(currNode, SALT_TYPE.STOKEN, Collections.<SNode> emptyList(), baseNode);
+		}
 	}
 
+	/** minimal number of nodes in a level to match them in parallel **/
+	private static final int MIN_PARALLEL_LEVEL_SIZE = 1024;
+	/** executor to match the nodes of a level in parallel or null **/
+	private ExecutorService executor = null;
+	/** number of tasks a level is split into **/
+	private int parallelism = 1;
+
 	/**
-	 * set of already visited {@link SRelation}s while traversing, this is
-	 * necessary to avoid cycles
-	 **/
-	private Set<SRelation> visitedRelations = new HashSet<>();
+	 * Sets the executor used to match the spans and structures of a level
+	 * against the base graph in parallel. Only the matching is done in
+	 * parallel, the base graph is modified by the calling thread.
+	 * 
+	 * @param executor
+	 *            the executor or null to merge sequentially
+	 * @param parallelism
+	 *            number of threads of the executor to be used
+	 */
+	public void setExecutor(ExecutorService executor, int parallelism) {
+		this.executor = executor;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Merges the spans or structures of one level in two phases:
+	 * <ol>
+	 * <li>matching: the equivalents of the children and the shared parents in
+	 * base graph are looked up for all nodes in parallel. This phase only
+	 * reads the base graph.</li>
+	 * <li>applying: the nodes are merged into the base graph one after
+	 * another in the order of the level. Once a node was created in this
+	 * phase, a node of the same level could match it. Therefore, nodes which
+	 * had no exact match are matched again.</li>
+	 * </ol>
+	 * The result is the same as merging the nodes one after another.
+	 */
+	private void mergeLevelInParallel(final List<SNode> level) {
+		final SALT_TYPE sTypeNode = (level.get(0) instanceof SSpan) ? SALT_TYPE.SSPAN : SALT_TYPE.SSTRUCTURE;
+		final SALT_TYPE sTypeRelations = (level.get(0) instanceof SSpan) ? SALT_TYPE.SSPANNING_RELATION : SALT_TYPE.SDOMINANCE_RELATION;
+		// the index must not be created concurrently
+		getParentIndex(sTypeNode);
+
+		final List<List<SNode>> childrens = new ArrayList<>(Collections.<List<SNode>> nCopies(level.size(), null));
+		final SNode[] baseNodes = new SNode[level.size()];
+		final boolean[] exactMatches = new boolean[level.size()];
+		int chunkSize = Math.max(MIN_PARALLEL_LEVEL_SIZE / 4, (level.size() + parallelism * 4 - 1) / (parallelism * 4));
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int chunkStart = 0; chunkStart < level.size(); chunkStart += chunkSize) {
+			final int start = chunkStart;
+			final int end = Math.min(level.size(), chunkStart + chunkSize);
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (int i = start; i < end; i++) {
+						SNode currNode = level.get(i);
+						if (!((currNode instanceof SSpan) || (currNode instanceof SStructure))) {
+							// e.g. a cycle, merged one after another
+							continue;
+						}
+						List<SNode> children = getChildren(currNode, sTypeRelations);
+						childrens.set(i, children);
+						baseNodes[i] = getIndexedParent(children, sTypeNode);
+						if (baseNodes[i] != null) {
+							exactMatches[i] = true;
+						} else {
+							List<SNode> sharedParents = searchSharedParents(children, sTypeNode);
+							if (sharedParents.size() > 0) {
+								baseNodes[i] = sharedParents.get(0);
+							}
+						}
+					}
+					return null;
+				}
+			});
+		}
+		try {
+			for (Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			throw new PepperModuleException("Interrupted while matching nodes of document '" + otherGraph.getId() + "'. ", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new PepperModuleException("Cannot match nodes of document '" + otherGraph.getId() + "'. ", e.getCause());
+		}
+
+		boolean created = false;
+		for (int i = 0; i < level.size(); i++) {
+			SNode currNode = level.get(i);
+			List<SNode> children = childrens.get(i);
+			if (children == null) {
+				mergeNode(currNode);
+				continue;
+			}
+			SNode baseNode = baseNodes[i];
+			if ((created) && (!exactMatches[i])) {
+				List<SNode> sharedParents = getSharedParent(children, sTypeNode);
+				baseNode = (sharedParents.size() > 0) ? sharedParents.get(0) : null;
+			}
+			if (applyMerge(currNode, sTypeNode, children, baseNode)) {
+				created = true;
+			}
+		}
+	}
 
 	/**
-	 * Called by Pepper as callback, when otherGraph is traversed. Currently
-	 * only returns <code>true</code> to traverse the entire graph.
+	 * Computes the levels of the nodes of the other graph to be merged:
+	 * <ol>
+	 * <li>all tokens</li>
+	 * <li>all spans</li>
+	 * <li>all structures of height 1, which do not dominate another
+	 * structure</li>
+	 * <li>all structures of height 2, which dominate at least one structure
+	 * of height 1</li>
+	 * <li>...</li>
+	 * </ol>
+	 * Spans and structures are only contained, when they are connected to the
+	 * document structure by a {@link SSpanningRelation} or a
+	 * {@link SDominanceRelation}. Within a level, nodes are ordered as in the
+	 * other graph. Structures being part of a dominance cycle do not get a
+	 * height, they are appended as a last level.
+	 * 
+	 * @return the levels of nodes to be merged one after another
 	 */
-	@Override
-	public boolean checkConstraint(GRAPH_TRAVERSE_TYPE traversalType, String traversalId, SRelation sRelation, SNode currNode, long order) {
-		boolean retVal = true;
-		if (sRelation != null) {
-			if (sRelation instanceof SPointingRelation) {
-				// in case of relation is pointing relation, ignore it, it will
-				// be processed later
-
-				retVal = false;
+	List<List<SNode>> computeLevels() {
+		List<List<SNode>> levels = new ArrayList<>();
+		levels.add(new ArrayList<SNode>(otherGraph.getTokens()));
+
+		List<SNode> spans = new ArrayList<>();
+		for (SSpan span : otherGraph.getSpans()) {
+			if (isConnected(span)) {
+				spans.add(span);
+			}
+		}
+		levels.add(spans);
+
+		// Kahn's algorithm: a structure gets its level, when all dominated
+		// structures have got theirs
+		List<SStructure> structures = otherGraph.getStructures();
+		IdentityIndex<SNode> ordinals = new IdentityIndex<>(structures.size());
+		for (SStructure structure : structures) {
+			ordinals.add(structure);
+		}
+		int[] pendingChildren = new int[ordinals.size()];
+		List<SNode> level = new ArrayList<>();
+		int numberOfLeveled = 0;
+		for (SStructure structure : structures) {
+			if (isConnected(structure)) {
+				int ordinal = ordinals.getOrdinal(structure);
+				for (SRelation relation : structure.getOutRelations()) {
+					if ((relation instanceof SDominanceRelation) && (relation.getTarget() instanceof SStructure)) {
+						pendingChildren[ordinal]++;
+					}
+				}
+				if (pendingChildren[ordinal] == 0) {
+					level.add(structure);
+				}
 			} else {
-				if (visitedRelations.contains(sRelation)) {
-					retVal = false;
-				} else {
-					visitedRelations.add(sRelation);
+				// is not merged at all
+				pendingChildren[ordinals.getOrdinal(structure)] = -1;
+				numberOfLeveled++;
+			}
+		}
+		while (!level.isEmpty()) {
+			levels.add(level);
+			numberOfLeveled += level.size();
+			List<SNode> nextLevel = new ArrayList<>();
+			for (SNode structure : level) {
+				for (SRelation relation : structure.getInRelations()) {
+					if (relation instanceof SDominanceRelation) {
+						int parent = ordinals.getOrdinal((SNode) relation.getSource());
+						if ((parent != -1) && (--pendingChildren[parent] == 0)) {
+							nextLevel.add((SNode) relation.getSource());
+						}
+					}
+				}
+			}
+			level = nextLevel;
+		}
+		if (numberOfLeveled < ordinals.size()) {
+			List<SNode> cyclicStructures = new ArrayList<>();
+			for (SStructure structure : structures) {
+				if (pendingChildren[ordinals.getOrdinal(structure)] > 0) {
+					cyclicStructures.add(structure);
 				}
 			}
+			logger.warn("[Merger] Found a cycle of dominance relations in document '" + otherGraph.getId() + "' containing the structures: " + cyclicStructures);
+			levels.add(cyclicStructures);
 		}
-		return (retVal);
+		return levels;
 	}
 
 	/**
-	 * Called by Pepper as callback, when otherGraph is traversed. Currently is
-	 * empty.
+	 * @return true, if the passed span or structure has children or is
+	 *         dominated by a structure
 	 */
-	@Override
-	public void nodeReached(GRAPH_TRAVERSE_TYPE traversalType, String traversalId, SNode currNode, SRelation sRelation, SNode otherNode, long order) {
+	private static boolean isConnected(SNode node) {
+		for (SRelation relation : node.getOutRelations()) {
+			if ((relation instanceof SSpanningRelation) || (relation instanceof SDominanceRelation)) {
+				return true;
+			}
+		}
+		for (SRelation relation : node.getInRelations()) {
+			if (relation instanceof SDominanceRelation) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
-	 * Called by Pepper as callback, when otherGraph is traversed.
+	 * Merges the passed node of the other graph into the base graph. All
+	 * children of the node must have been merged before.
 	 */
-	@Override
-	public void nodeLeft(GRAPH_TRAVERSE_TYPE traversalType, String traversalId, SNode currNode, SRelation relation, SNode otherNode, long order) {
+	private void mergeNode(SNode currNode) {
 		if (currNode instanceof SToken) {
-			mergeNode(currNode, null, SALT_TYPE.STOKEN);
+			mergeTokens(Collections.singletonList(currNode));
 		} else if (currNode instanceof SSpan) {
 			mergeNode(currNode, SALT_TYPE.SSPANNING_RELATION, SALT_TYPE.SSPAN);
 		} else if (currNode instanceof SStructure) {
 			mergeNode(currNode, SALT_TYPE.SDOMINANCE_RELATION, SALT_TYPE.SSTRUCTURE);
-		} else if (currNode instanceof STextualDS) {
-			// base text should be merged already
 		} else {
 			throw new PepperModuleException("Merging not implemented for this node type: " + currNode);
 		}
 	}
 
 	/**
+	 * Merges the passed node of the other graph into the base graph.
 	 * 
 	 * @param currNode
 	 * @param sTypeRelations
 	 * @param sTypeNode
-	 * @return
 	 */
 	private void mergeNode(SNode currNode, SALT_TYPE sTypeRelations, SALT_TYPE sTypeNode) {
-		SNode baseNode = null;
-
 		// list of all equivalents to children of current node in base document
 		List<SNode> childrens = getChildren(currNode, sTypeRelations);
-
-		if ((currNode instanceof SToken) || (!getProperties().isCopyNodes())) {
-			// do not copy all nodes, merge instead
-
+		SNode baseNode = null;
+		if (isMergable(currNode)) {
 			// list all parents in base document sharing the children
-			List<SNode> sharedParents = new ArrayList<>();
-			if (childrens.size() > 0) {
-				sharedParents = getSharedParent(childrens, sTypeNode);
-			}
+			List<SNode> sharedParents = getSharedParent(childrens, sTypeNode);
 			if (sharedParents.size() > 0) {
 				// an equivalent to current node in base document was found
-
 				baseNode = sharedParents.get(0);
 			}
 		}
+		applyMerge(currNode, sTypeNode, childrens, baseNode);
+	}
+
+	/**
+	 * @return true, if an equivalent to the passed node is looked up in base
+	 *         graph, false if the node is copied
+	 */
+	private boolean isMergable(SNode currNode) {
+		return (currNode instanceof SToken) || (!getProperties().isCopyNodes());
+	}
+
+	/**
+	 * Merges the passed node of the other graph into its equivalent in the
+	 * base graph. If no equivalent was found, a new node is created in base
+	 * graph.
+	 * 
+	 * @param currNode
+	 *            node of the other graph
+	 * @param sTypeNode
+	 *            type of currNode
+	 * @param childrens
+	 *            equivalents to the children of currNode in base graph
+	 * @param baseNode
+	 *            equivalent to currNode in base graph or null
+	 * @return true, if a new span or structure was created
+	 */
+	private boolean applyMerge(SNode currNode, SALT_TYPE sTypeNode, List<SNode> childrens, SNode baseNode) {
+		boolean created = false;
 		if (baseNode == null) {
 			// no equivalent to currNode in base document was found
 
 			switch (sTypeNode) {
 			case STOKEN: {
-				baseNode = node2NodeMap.get(currNode);
-				if (baseNode != null) {
-					// Match found
-				} else {
-					STextualRelation textRel = null;
-					for (SRelation rel : currNode.getOutRelations()) {
-						if (rel instanceof STextualRelation) {
-							textRel = (STextualRelation) rel;
-							break;
-						}
-					}
-					// Find the alignment of the current token to create a new
-					// one
-					Integer start = container.getAlignedTokenStart((STextualDS) node2NodeMap.get(textRel.getTarget()), (SToken) currNode);
-					Integer length = container.getAlignedTokenLength((STextualDS) node2NodeMap.get(textRel.getTarget()), (SToken) currNode);
-					if ((start != -1) && (length != -1)) {
-						baseNode = baseGraph.createToken((STextualDS) node2NodeMap.get(textRel.getTarget()), start, start + length);
-					} else {
-						logger.warn("[Merger] Could not create token in target graph matching to node '" + SaltUtil.getGlobalId(currNode.getIdentifier()) + "', because start (" + start + ") or length (" + length + ") was empty. ");
-					}
-				}
+				// tokens are created by mergeTokens(List)
 				break;
 			}
 			case SSPAN: {
@@ -294,6 +566,12 @@ class MergeHandler implements GraphTraverseHandler {
 					toSTokens.add((SToken) sNode);
 				}
 				baseNode = baseGraph.createSpan(toSTokens);
+				// no node is created, if none of the children has an
+				// equivalent in base graph
+				created = (baseNode != null);
+				if ((created) && (parentIndex != null)) {
+					indexParent(baseNode, SALT_TYPE.SSPANNING_RELATION, SALT_TYPE.SSPAN);
+				}
 				break;
 			}
 			case SSTRUCTURE: {
@@ -302,6 +580,12 @@ class MergeHandler implements GraphTraverseHandler {
 					baseStructureNodes.add((SStructuredNode) sNode);
 				}
 				baseNode = baseGraph.createStructure(baseStructureNodes);
+				// no node is created, if none of the children has an
+				// equivalent in base graph
+				created = (baseNode != null);
+				if ((created) && (parentIndex != null)) {
+					indexParent(baseNode, SALT_TYPE.SDOMINANCE_RELATION, SALT_TYPE.SSTRUCTURE);
+				}
 				break;
 			}
 			default:
@@ -318,64 +602,118 @@ class MergeHandler implements GraphTraverseHandler {
 			SaltUtil.moveAnnotations(currNode, baseNode);
 			SaltUtil.moveMetaAnnotations(currNode, baseNode);
 		}
+		return created;
+	}
+
+	/**
+	 * Maps the layers of the other graph to their equivalents in base graph,
+	 * which have the same name. The value is null, as long as the base layer
+	 * was not needed. Initialized by {@link #getLayerTable()}.
+	 **/
+	private Map<SLayer, SLayer> layerTable = null;
+	/** base nodes to be added to the base layers by {@link #flushLayers()} **/
+	private Map<SLayer, List<SNode>> pendingLayerNodes = new LinkedHashMap<>();
+	/**
+	 * base relations to be added to the base layers by {@link #flushLayers()}
+	 **/
+	private Map<SLayer, List<SRelation>> pendingLayerRelations = new LinkedHashMap<>();
+
+	/**
+	 * @return the table of layers of the other graph, see {@link #layerTable}
+	 */
+	private Map<SLayer, SLayer> getLayerTable() {
+		if (layerTable == null) {
+			layerTable = new LinkedHashMap<>();
+			if (getOtherGraph().getLayers() != null) {
+				for (SLayer otherLayer : getOtherGraph().getLayers()) {
+					layerTable.put(otherLayer, null);
+				}
+			}
+		}
+		return layerTable;
+	}
+
+	/**
+	 * Returns the layer of base graph having the same name as the passed layer
+	 * of the other graph. If no such layer exists in base graph, it will be
+	 * created and all annotations of the other layer will be moved.
+	 */
+	private SLayer getBaseLayer(SLayer otherLayer) {
+		SLayer baseLayer = getLayerTable().get(otherLayer);
+		if (baseLayer == null) {
+			List<SLayer> layers = getBaseGraph().getLayerByName(otherLayer.getName());
+			if ((layers != null) && (!layers.isEmpty())) {
+				baseLayer = layers.get(0);
+			}
+			if (baseLayer == null) {
+				baseLayer = SaltFactory.createSLayer();
+				baseLayer.setName(otherLayer.getName());
+				SaltUtil.moveAnnotations(otherLayer, baseLayer);
+				SaltUtil.moveMetaAnnotations(otherLayer, baseLayer);
+				getBaseGraph().addLayer(baseLayer);
+			}
+			layerTable.put(otherLayer, baseLayer);
+		}
+		return baseLayer;
 	}
 
 	/**
 	 * Copies the {@link SNode} or {@link SRelation} objects passed as
 	 * <code>other</code> to all layers, the object passed as <code>base</code>
 	 * is connected with. If no such layer exists in target graph, it will be
-	 * created and all its annotations will be moved.
+	 * created and all its annotations will be moved. The base object is added
+	 * to the layers by the next call of {@link #flushLayers()}.
 	 * 
 	 * @param other
 	 * @param base
 	 */
-	private static void copySLayers(IdentifiableElement other, IdentifiableElement base) {
+	private void copySLayers(IdentifiableElement other, IdentifiableElement base) {
+		if (getLayerTable().isEmpty()) {
+			return;
+		}
 		if ((other instanceof SRelation) && (base instanceof SRelation)) {
-			SRelation otherRel = (SRelation) other;
-			SRelation baseRel = (SRelation) base;
-			if ((otherRel.getLayers() != null) && (otherRel.getLayers().size() != 0)) {
-				SDocumentGraph baseGraph = ((SDocumentGraph) baseRel.getGraph());
-				Iterator<SLayer> it = otherRel.getLayers().iterator();
-				while (it.hasNext()) {
-					SLayer otherLayer = it.next();
-					List<SLayer> layers = baseGraph.getLayerByName(otherLayer.getName());
-					SLayer baseLayer = null;
-					if ((layers != null) && (!layers.isEmpty())) {
-						baseLayer = layers.get(0);
-					}
-					if (baseLayer == null) {
-						baseLayer = SaltFactory.createSLayer();
-						baseLayer.setName(otherLayer.getName());
-						SaltUtil.moveAnnotations(otherLayer, baseLayer);
-						SaltUtil.moveMetaAnnotations(otherLayer, baseLayer);
-						baseGraph.addLayer(baseLayer);
-					}
-					baseRel.addLayer(baseLayer);
+			for (SLayer otherLayer : ((SRelation<?, ?>) other).getLayers()) {
+				SLayer baseLayer = getBaseLayer(otherLayer);
+				List<SRelation> pending = pendingLayerRelations.get(baseLayer);
+				if (pending == null) {
+					pending = new ArrayList<>();
+					pendingLayerRelations.put(baseLayer, pending);
 				}
+				pending.add((SRelation) base);
 			}
 		} else if ((other instanceof SNode) && (base instanceof SNode)) {
-			SNode otherNode = (SNode) other;
-			SNode baseNode = (SNode) base;
-			if ((otherNode.getLayers() != null) && (otherNode.getLayers().size() != 0)) {
-				SDocumentGraph baseGraph = ((SDocumentGraph) baseNode.getGraph());
-
-				for (SLayer otherLayer : otherNode.getLayers()) {
-					List<SLayer> layers = baseGraph.getLayerByName(otherLayer.getName());
-					SLayer baseLayer = null;
-					if ((layers != null) && (!layers.isEmpty())) {
-						baseLayer = layers.get(0);
-					}
-					if (baseLayer == null) {
-						baseLayer = SaltFactory.createSLayer();
-						baseLayer.setName(otherLayer.getName());
-						SaltUtil.moveAnnotations(otherLayer, baseLayer);
-						SaltUtil.moveMetaAnnotations(otherLayer, baseLayer);
-						baseGraph.addLayer(baseLayer);
-					}
-					baseNode.addLayer(baseLayer);
+			for (SLayer otherLayer : ((SNode) other).getLayers()) {
+				SLayer baseLayer = getBaseLayer(otherLayer);
+				List<SNode> pending = pendingLayerNodes.get(baseLayer);
+				if (pending == null) {
+					pending = new ArrayList<>();
+					pendingLayerNodes.put(baseLayer, pending);
 				}
+				pending.add((SNode) base);
+			}
+		}
+	}
+
+	/**
+	 * Adds the nodes and relations collected by
+	 * {@link #copySLayers(IdentifiableElement, IdentifiableElement)} to their
+	 * base layers, one layer after another.
+	 */
+	private void flushLayers() {
+		for (Map.Entry<SLayer, List<SNode>> entry : pendingLayerNodes.entrySet()) {
+			SLayer baseLayer = entry.getKey();
+			for (SNode baseNode : entry.getValue()) {
+				baseLayer.addNode(baseNode);
 			}
 		}
+		pendingLayerNodes.clear();
+		for (Map.Entry<SLayer, List<SRelation>> entry : pendingLayerRelations.entrySet()) {
+			SLayer baseLayer = entry.getKey();
+			for (SRelation baseRel : entry.getValue()) {
+				baseLayer.addRelation(baseRel);
+			}
+		}
+		pendingLayerRelations.clear();
 	}
 
 	/**
@@ -434,10 +772,56 @@ class MergeHandler implements GraphTraverseHandler {
 		return children;
 	}
 
+	/**
+	 * Index of the {@link SSpan} and {@link SStructure} nodes in the base graph
+	 * by their type and the set of their children. If several nodes have the
+	 * same children, the first one in the base graph is indexed.
+	 **/
+	private Map<SALT_TYPE, Map<Set<SNode>, SNode>> parentIndex = null;
+
+	/**
+	 * Returns the index of the passed node type, see {@link #parentIndex}. The
+	 * index is created with the first call.
+	 */
+	private Map<Set<SNode>, SNode> getParentIndex(SALT_TYPE sTypeNode) {
+		if (parentIndex == null) {
+			parentIndex = new EnumMap<>(SALT_TYPE.class);
+			parentIndex.put(SALT_TYPE.SSPAN, new HashMap<Set<SNode>, SNode>());
+			parentIndex.put(SALT_TYPE.SSTRUCTURE, new HashMap<Set<SNode>, SNode>());
+			for (SSpan span : baseGraph.getSpans()) {
+				indexParent(span, SALT_TYPE.SSPANNING_RELATION, SALT_TYPE.SSPAN);
+			}
+			for (SStructure structure : baseGraph.getStructures()) {
+				indexParent(structure, SALT_TYPE.SDOMINANCE_RELATION, SALT_TYPE.SSTRUCTURE);
+			}
+		}
+		return parentIndex.get(sTypeNode);
+	}
+
+	/**
+	 * Adds the passed base node to the {@link #parentIndex}, if no other node
+	 * having the same children is indexed yet.
+	 */
+	private void indexParent(SNode baseParent, SALT_TYPE sTypeRelation, SALT_TYPE sTypeNode) {
+		Set<SNode> children = new HashSet<>();
+		for (SRelation relation : baseParent.getOutRelations()) {
+			if (((SALT_TYPE.SSPANNING_RELATION.equals(sTypeRelation)) && (relation instanceof SSpanningRelation)) || ((SALT_TYPE.SDOMINANCE_RELATION.equals(sTypeRelation)) && (relation instanceof SDominanceRelation))) {
+				children.add((SNode) relation.getTarget());
+			}
+		}
+		Map<Set<SNode>, SNode> index = parentIndex.get(sTypeNode);
+		if (!index.containsKey(children)) {
+			index.put(children, baseParent);
+		}
+	}
+
 	/**
 	 * Returns a list of nodes that are the parents of every node in the given
 	 * base list. Only relations with the given {@link SALT_TYPE} will be
-	 * considered.
+	 * considered. A parent having exactly the given children is looked up in
+	 * the {@link #parentIndex} and returned first, see
+	 * {@link #getIndexedParent(List, SALT_TYPE)}. Otherwise the parents are
+	 * searched, see {@link #searchSharedParents(List, SALT_TYPE)}.
 	 * 
 	 * @param children
 	 *            list of nodes whose parents are looked for
@@ -446,24 +830,64 @@ class MergeHandler implements GraphTraverseHandler {
 	 * @return a list of parents
 	 */
 	private List<SNode> getSharedParent(List<SNode> children, SALT_TYPE sTypeNode) {
+		SNode parent = getIndexedParent(children, sTypeNode);
+		if (parent != null) {
+			List<SNode> sharedParents = new ArrayList<>();
+			sharedParents.add(parent);
+			return sharedParents;
+		}
+		return searchSharedParents(children, sTypeNode);
+	}
+
+	/**
+	 * @return the node of the passed type in the base graph, which has exactly
+	 *         the passed children or null
+	 */
+	private SNode getIndexedParent(List<SNode> children, SALT_TYPE sTypeNode) {
+		if ((children.size() > 0) && (children.get(0) != null) && ((SALT_TYPE.SSPAN.equals(sTypeNode)) || (SALT_TYPE.SSTRUCTURE.equals(sTypeNode)))) {
+			Map<Set<SNode>, SNode> index = getParentIndex(sTypeNode);
+			if (!index.isEmpty()) {
+				return index.get(new HashSet<>(children));
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the parents of the first child, which are also parents of all
+	 * other children, in the order of the in-relations of the first child.
+	 * 
+	 * @param children
+	 *            list of nodes whose parents are looked for
+	 * @param sTypeNode
+	 *            regarded types of relations
+	 * @return a list of parents
+	 */
+	private List<SNode> searchSharedParents(List<SNode> children, SALT_TYPE sTypeNode) {
 		List<SNode> sharedParents = new ArrayList<>();
 		if ((children.size() > 0) && (children.get(0) != null)) {
+			if (((SALT_TYPE.SSPAN.equals(sTypeNode)) || (SALT_TYPE.SSTRUCTURE.equals(sTypeNode))) && (getParentIndex(sTypeNode).isEmpty())) {
+				// base graph does not contain a node of that type
+				return sharedParents;
+			}
 			List<SRelation> rels = children.get(0).getInRelations();
 			if ((rels != null) && (rels.size() > 0)) {
 				// A merge candidate has to be connected to every base node
+				Set<SNode> candidates = new LinkedHashSet<>();
 				for (SRelation<SNode, SNode> baseRelation : rels) {
-					sharedParents.add(baseRelation.getSource());
+					SNode parent = baseRelation.getSource();
+					if (SALT_TYPE.class2SaltType(parent.getClass()).contains(sTypeNode)) {
+						candidates.add(parent);
+					}
 				}
-				for (SNode baseNode : children) {
-					List<SNode> parents = new ArrayList<>();
-					for (SRelation<SNode, SNode> sRelation : baseNode.getInRelations()) {
-						SNode parent = sRelation.getSource();
-						if (SALT_TYPE.class2SaltType(parent.getClass()).contains(sTypeNode)) {
-							parents.add(parent);
-						}
+				for (int i = 1; (i < children.size()) && (!candidates.isEmpty()); i++) {
+					Set<SNode> parents = new HashSet<>();
+					for (SRelation<SNode, SNode> sRelation : children.get(i).getInRelations()) {
+						parents.add(sRelation.getSource());
 					}
-					sharedParents.retainAll(parents);
+					candidates.retainAll(parents);
 				}
+				sharedParents.addAll(candidates);
 			}
 		}
 		return sharedParents;
@@ -28,12 +28,17 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.corpus_tools.pepper.common.DOCUMENT_STATUS;
 import org.corpus_tools.pepper.common.PepperConfiguration;
+import org.corpus_tools.pepper.core.PepperJobImpl;
 import org.corpus_tools.pepper.exceptions.PepperFWException;
 import org.corpus_tools.pepper.impl.PepperManipulatorImpl;
 import org.corpus_tools.pepper.modules.DocumentController;
@@ -299,25 +304,87 @@ public class Merger extends PepperManipulatorImpl implements PepperManipulator {
 	private volatile Lock mergerMappersLock = new ReentrantLock();
 	private volatile Condition mergerMappersCondition = mergerMappersLock.newCondition();
 	private volatile int numberOfMergerMappers = 0;
+	/** number of documents reserved by all active merger-mappers **/
+	private volatile int numberOfReservedDocuments = 0;
+	/** estimated number of elements reserved by all active merger-mappers **/
+	private volatile long numberOfReservedElements = 0;
+	/** the reservation of each active merger-mapper by slot **/
+	private Map<String, SlotReservation> reservations = new HashMap<>();
 
 	/**
-	 * waits until less or equal merger-mappers are active than the half of the
-	 * maximal amount of documents are this behavior should prevent from
-	 * possible deadlocks in merger mapper, when a base document is blocked and
-	 * the mapper waits for a permission to load the 'other' document in main
-	 * memory. For instance when 2 mappers are active and only 2 documents are
-	 * allowed to be loaded: when both mappers have loaded the base document no
-	 * place is left for the 'other document', so they will block each other.
+	 * The main memory a merger-mapper is allowed to use for merging one slot.
 	 */
-	private void waitForMergerMapper() {
+	private static class SlotReservation {
+		/** number of documents needed in main memory at the same time **/
+		private final int documents;
+		/** estimated number of nodes and relations of all documents **/
+		private final long elements;
+
+		private SlotReservation(int documents, long elements) {
+			this.documents = documents;
+			this.elements = elements;
+		}
+	}
+
+	/**
+	 * Computes the reservation for merging the passed slot. A mapper needs the
+	 * base document and {@link #getMergeWindow()} other documents in main
+	 * memory at the same time, but not more than the slot contains. The
+	 * number of elements is the sum of nodes and relations of all documents,
+	 * taken from the document controller if the document is asleep and from
+	 * the document graph otherwise.
+	 */
+	private SlotReservation reserve(List<Identifier> slot) {
+		long elements = 0;
+		for (Identifier sDocumentId : slot) {
+			DocumentController docController = getDocumentId2DC().get(SaltUtil.getGlobalId(sDocumentId));
+			if (docController == null) {
+				continue;
+			}
+			if (docController.isAsleep()) {
+				elements += docController.getSize_nodes() + docController.getSize_relations();
+			} else if ((docController.getDocument() != null) && (docController.getDocument().getDocumentGraph() != null)) {
+				elements += docController.getDocument().getDocumentGraph().getNodes().size() + docController.getDocument().getDocumentGraph().getRelations().size();
+			}
+		}
+		return new SlotReservation(Math.max(1, Math.min(slot.size(), 1 + getMergeWindow())), elements);
+	}
+
+	/**
+	 * Waits until the memory needed to merge the passed slot is available and
+	 * reserves it. Two limits are checked:
+	 * <ul>
+	 * <li>The number of documents reserved by all mappers must not exceed the
+	 * maximal number of documents in main memory. This prevents from
+	 * deadlocks, when a mapper has woken up its base document and waits for
+	 * the permission to wake up an 'other' document, while the other mappers
+	 * do the same. For instance when 2 mappers are active and only 2
+	 * documents are allowed to be loaded: when both mappers have loaded the
+	 * base document no place is left for the 'other document', so they will
+	 * block each other.</li>
+	 * <li>The estimated number of elements of all slots must not exceed
+	 * {@link MergerProperties#getMaxElementsInMemory()}.</li>
+	 * </ul>
+	 * When no mapper is active, the slot is always admitted. Therefore many
+	 * small slots can be merged in parallel, while a huge slot is merged
+	 * alone.
+	 */
+	private void waitForMergerMapper(String slotId, List<Identifier> slot) {
+		SlotReservation reservation = reserve(slot);
 		mergerMappersLock.lock();
 		try {
 			if (getModuleController() != null && getModuleController().getJob() != null) {
-				while (numberOfMergerMappers >= Double.valueOf(Math.floor(getModuleController().getJob().getMaxNumberOfDocuments() / 2)).intValue()) {
+				int maxDocuments = getModuleController().getJob().getMaxNumberOfDocuments();
+				long maxElements = ((MergerProperties) getProperties()).getMaxElementsInMemory();
+				while ((numberOfMergerMappers > 0) && ((numberOfReservedDocuments + reservation.documents > maxDocuments) || (numberOfReservedElements + reservation.elements > maxElements))) {
 					mergerMappersCondition.await();
 				}
 			}
 			numberOfMergerMappers++;
+			numberOfReservedDocuments += reservation.documents;
+			numberOfReservedElements += reservation.elements;
+			reservations.put(slotId, reservation);
+			logger.trace("[Merger] Admitted slot '{}' with {} documents and an estimate of {} elements. ", slotId, reservation.documents, reservation.elements);
 		} catch (InterruptedException e) {
 			throw new PepperModuleException(this, "A problem occured in deadlock permission for merger mapper processes. ", e);
 		} finally {
@@ -326,27 +393,191 @@ public class Merger extends PepperManipulatorImpl implements PepperManipulator {
 	}
 
 	/**
-	 * Reduces the internal count of active mappers by one.
+	 * Releases the memory reserved for merging the passed slot.
 	 * 
-	 * @see #waitForMergerMapper()
+	 * @param slotId
+	 *            the id shared by all documents of the slot
+	 * @see #waitForMergerMapper(String, List)
 	 */
-	public void releaseMergerMapper() {
+	public void releaseMergerMapper(String slotId) {
 		mergerMappersLock.lock();
 		try {
-			numberOfMergerMappers--;
-			mergerMappersCondition.signal();
+			SlotReservation reservation = reservations.remove(slotId);
+			if (reservation != null) {
+				numberOfMergerMappers--;
+				numberOfReservedDocuments -= reservation.documents;
+				numberOfReservedElements -= reservation.elements;
+				mergerMappersCondition.signalAll();
+			}
+		} finally {
+			mergerMappersLock.unlock();
+		}
+	}
+
+	/**
+	 * @return number of documents reserved by all active merger-mappers
+	 */
+	private int getNumberOfReservedDocuments() {
+		mergerMappersLock.lock();
+		try {
+			return numberOfReservedDocuments;
 		} finally {
 			mergerMappersLock.unlock();
 		}
 	}
 
 	// ===========================< synchronization to avoid deadlocks in mapper
+
+	// =========================> parallel merging of other documents
+	/**
+	 * worker pool shared by all mappers to normalize and align other documents
+	 * in parallel, see {@link MergerProperties#PROP_MERGE_THREADS}
+	 **/
+	private ExecutorService mergeExecutor = null;
+
+	/**
+	 * Returns the worker pool to normalize and align other documents in
+	 * parallel. The pool is created on first call and contains
+	 * {@link MergerProperties#getMergeThreads()} threads.
+	 * 
+	 * @return the worker pool
+	 */
+	public synchronized ExecutorService getMergeExecutor() {
+		if (mergeExecutor == null) {
+			mergeExecutor = Executors.newFixedThreadPool(((MergerProperties) getProperties()).getMergeThreads(), new ThreadFactory() {
+				private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, MODULE_NAME + "-worker-" + threadNumber.getAndIncrement());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return mergeExecutor;
+	}
+
+	/**
+	 * Shuts down the worker pool, if one was created.
+	 */
+	private synchronized void shutdownMergeExecutor() {
+		if (mergeExecutor != null) {
+			mergeExecutor.shutdown();
+			mergeExecutor = null;
+		}
+	}
+
+	/**
+	 * Returns the number of other documents a single mapper normalizes and
+	 * aligns in parallel. This is the number of merge threads, but since
+	 * each of these documents needs to be woken up, it is bounded by the
+	 * number of documents allowed in main memory minus the base document.
+	 * 
+	 * @return a value >= 1
+	 */
+	public int getMergeWindow() {
+		int window = ((MergerProperties) getProperties()).getMergeThreads();
+		if (getModuleController() != null && getModuleController().getJob() != null) {
+			window = Math.min(window, getModuleController().getJob().getMaxNumberOfDocuments() - 1);
+		}
+		return Math.max(window, 1);
+	}
+	// =========================< parallel merging of other documents
 	/**
 	 * a set of {@link Identifier} corresponding to documents for which the
 	 * merging have not been started
 	 **/
 	private Set<String> documentsToMerge = new HashSet<>();
 
+	/**
+	 * Documents which have arrived and are kept in main memory, since their
+	 * slot is not complete yet, see
+	 * {@link MergerProperties#PROP_KEEP_DOCUMENTS_AWAKE}. The value is the
+	 * slot the document belongs to.
+	 **/
+	private Map<DocumentController, String> awakeDocuments = new LinkedHashMap<>();
+
+	/**
+	 * Position in the import order at which each slot is expected to be
+	 * complete, which is the maximal position of its documents.
+	 **/
+	private Map<String, Integer> expectedSlotCompletion = null;
+
+	/**
+	 * Returns the position in the import order, at which the passed slot is
+	 * expected to be complete.
+	 */
+	private int getExpectedSlotCompletion(String slotId) {
+		if (expectedSlotCompletion == null) {
+			expectedSlotCompletion = new HashMap<>();
+			if (importOrder != null) {
+				for (List<Identifier> order : importOrder.values()) {
+					for (int i = 0; i < order.size(); i++) {
+						String id = order.get(i).getId();
+						Integer position = expectedSlotCompletion.get(id);
+						if ((position == null) || (position < i)) {
+							expectedSlotCompletion.put(id, i);
+						}
+					}
+				}
+			}
+		}
+		Integer position = expectedSlotCompletion.get(slotId);
+		return position == null ? Integer.MAX_VALUE : position;
+	}
+
+	/**
+	 * Sends the passed document to sleep and releases its place in main
+	 * memory.
+	 */
+	private void sendToSleep(DocumentController documentController) {
+		documentController.sendToSleep_FORCE();
+		// this is a bit hacky, but necessary
+		if (documentController.isAsleep()) {
+			getModuleController().getJob().releaseDocument(documentController);
+			logger.trace("[Merger] " + "Sent document '{}' to sleep. ", documentController.getGlobalId());
+		} else {
+			logger.warn("Was not able to send document '{}' to sleep. ", documentController.getGlobalId());
+		}
+	}
+
+	/**
+	 * Sends documents of {@link #awakeDocuments} to sleep until there is
+	 * enough space in main memory left for the active mappers and one further
+	 * mapper to wake up their documents. The documents whose slot is expected to be complete last are
+	 * sent to sleep first.
+	 */
+	private void sendAwakeDocumentsToSleep() {
+		PepperJobImpl job = getModuleController().getJob();
+		if (job == null) {
+			return;
+		}
+		int maxAwakeDocuments = job.getMaxNumberOfDocuments() - getNumberOfReservedDocuments() - (1 + getMergeWindow());
+		while ((!awakeDocuments.isEmpty()) && (job.getNumOfActiveDocuments() > maxAwakeDocuments)) {
+			DocumentController latest = null;
+			int latestCompletion = -1;
+			for (Map.Entry<DocumentController, String> entry : awakeDocuments.entrySet()) {
+				int completion = getExpectedSlotCompletion(entry.getValue());
+				if (completion >= latestCompletion) {
+					latest = entry.getKey();
+					latestCompletion = completion;
+				}
+			}
+			awakeDocuments.remove(latest);
+			sendToSleep(latest);
+		}
+	}
+
+	/**
+	 * Returns true, if the passed slot only consists of one document, which
+	 * already belongs to the base corpus structure. Such a document does not
+	 * need to be merged and can be completed right away.
+	 */
+	private boolean isPassThrough(List<SNode> slot) {
+		return ((slot != null) && (slot.size() == 1) && (slot.get(0) instanceof SDocument) && (((SDocument) slot.get(0)).getGraph() == getBaseCorpusStructure()));
+	}
+
 	/**
 	 * {@inheritDoc PepperModule#start()} Overrides parent method, to enable the
 	 * parallel working in more than one {@link DocumentController} objects at a
@@ -403,6 +634,7 @@ public class Merger extends PepperManipulatorImpl implements PepperManipulator {
 		// creating new thread group for mapper threads
 		setMapperThreadGroup(new ThreadGroup(Thread.currentThread().getThreadGroup(), this.getName() + "_mapperGroup"));
 		givenSlots = new Hashtable<>();
+		boolean keepDocumentsAwake = ((MergerProperties) getProperties()).isKeepDocumentsAwake();
 		boolean isStart = true;
 		Identifier sElementId = null;
 		DocumentController documentController = null;
@@ -413,9 +645,16 @@ public class Merger extends PepperManipulatorImpl implements PepperManipulator {
 				break;
 			}
 			sElementId = documentController.getDocumentId();
+			List<SNode> mappableSlot = mappingTable.get(sElementId.getId());
+			if (isPassThrough(mappableSlot)) {
+				// nothing to merge, neither send the document to sleep nor
+				// start a mapper
+				logger.trace("[Merger] Document {} is the only one of its slot and is passed through. ", SaltUtil.getGlobalId(sElementId));
+				getModuleController().complete(documentController);
+				continue;
+			}
 			getDocumentId2DC().put(SaltUtil.getGlobalId(sElementId), documentController);
 
-			List<SNode> mappableSlot = mappingTable.get(sElementId.getId());
 			List<Identifier> givenSlot = givenSlots.get(sElementId.getId());
 			if (givenSlot == null) {
 				givenSlot = new ArrayList<>();
@@ -425,17 +664,14 @@ public class Merger extends PepperManipulatorImpl implements PepperManipulator {
 			logger.trace("[Merger] New document has arrived {}. ", SaltUtil.getGlobalId(sElementId));
 			documentsToMerge.add(SaltUtil.getGlobalId(sElementId));
 
-			// send all documents to sleep
 			if (logger.isTraceEnabled()) {
 				logger.trace("[Merger] " + "Waiting for further documents, {} documents are in queue. ", documentsToMerge.size());
 			}
-			documentController.sendToSleep_FORCE();
-			// this is a bit hacky, but necessary
-			if (documentController.isAsleep()) {
-				getModuleController().getJob().releaseDocument(documentController);
-				logger.trace("[Merger] " + "Sent document '{}' to sleep. ", documentController.getGlobalId());
+			if (keepDocumentsAwake) {
+				awakeDocuments.put(documentController, sElementId.getId());
 			} else {
-				logger.warn("Was not able to send document '{}' to sleep. ", documentController.getGlobalId());
+				// send all documents to sleep
+				sendToSleep(documentController);
 			}
 			if (givenSlot.size() == mappableSlot.size()) {
 				try {
@@ -445,15 +681,21 @@ public class Merger extends PepperManipulatorImpl implements PepperManipulator {
 							throw new PepperModuleException(this, "Cannot find a document controller for document '" + SaltUtil.getGlobalId(sDocumentId) + "' in list: " + getDocumentId2DC() + ". ");
 						}
 						documentsToMerge.remove(docController.getGlobalId());
+						awakeDocuments.remove(docController);
+					}
+					if (keepDocumentsAwake) {
+						sendAwakeDocumentsToSleep();
 					}
 					// waits until enough spaces for documents is available to
 					// start mapper
-					waitForMergerMapper();
+					waitForMergerMapper(sElementId.getId(), givenSlot);
 
 					start(sElementId);
 				} catch (Exception e) {
 					throw new PepperModuleException("Any exception occured while merging documents corresponding to '" + sElementId + "'. ", e);
 				}
+			} else if (keepDocumentsAwake) {
+				sendAwakeDocumentsToSleep();
 			}
 		}
 
@@ -483,6 +725,7 @@ public class Merger extends PepperManipulatorImpl implements PepperManipulator {
 				throw new PepperFWException("Cannot wait for mapper thread '" + controller + "' in " + this.getName() + " to end. ", e);
 			}
 		}
+		shutdownMergeExecutor();
 		end();
 
 		// // only wait for controllers which have been added by end()
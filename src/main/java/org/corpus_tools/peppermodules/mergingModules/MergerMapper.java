@@ -17,13 +17,23 @@
  */
 package org.corpus_tools.peppermodules.mergingModules;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedHashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -34,19 +44,15 @@ import org.corpus_tools.pepper.modules.PepperMapper;
 import org.corpus_tools.pepper.modules.exceptions.PepperModuleDataException;
 import org.corpus_tools.pepper.modules.exceptions.PepperModuleException;
 import org.corpus_tools.pepper.modules.exceptions.PepperModuleInternalException;
+import org.corpus_tools.peppermodules.mergingModules.TokenMergeContainer.AlignedTokensMap;
 import org.corpus_tools.salt.common.SCorpus;
 import org.corpus_tools.salt.common.SCorpusGraph;
 import org.corpus_tools.salt.common.SDocument;
 import org.corpus_tools.salt.common.SDocumentGraph;
-import org.corpus_tools.salt.common.SDominanceRelation;
-import org.corpus_tools.salt.common.SSpanningRelation;
 import org.corpus_tools.salt.common.STextualDS;
 import org.corpus_tools.salt.common.STextualRelation;
 import org.corpus_tools.salt.common.SToken;
-import org.corpus_tools.salt.core.SGraph.GRAPH_TRAVERSE_TYPE;
 import org.corpus_tools.salt.core.SNode;
-import org.corpus_tools.salt.core.SRelation;
-import org.corpus_tools.salt.graph.Relation;
 import org.corpus_tools.salt.util.SaltUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -194,6 +200,11 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 	@Override
 	public DOCUMENT_STATUS mapSDocument() {
 		this.initialize();
+		// all documents of a slot share the same id
+		String slotId = null;
+		if (getMappingSubjects().size() > 0) {
+			slotId = getMappingSubjects().get(0).getIdentifier().getId();
+		}
 		if (this.getMappingSubjects().size() > 1) {
 
 			if (logger.isDebugEnabled()) {
@@ -228,7 +239,10 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 				}
 			}
 
-			mergeDocumentStructures(baseSubject);
+			MappingSubject transferredSubject = transferDocumentGraph(baseSubject);
+			if ((transferredSubject == null) || (getMappingSubjects().size() > 2)) {
+				mergeDocumentStructures(baseSubject);
+			}
 
 			// store base subject to delete others from list, since they
 			// already
@@ -246,14 +260,72 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 			}
 			getMappingSubjects().clear();
 			getMappingSubjects().add(baseSubj);
+			releaseSlotState();
 		}
-		if (getMerger() != null) {
-			getMerger().releaseMergerMapper();
+		if ((getMerger() != null) && (slotId != null)) {
+			getMerger().releaseMergerMapper(slotId);
 		}
 
 		return (DOCUMENT_STATUS.COMPLETED);
 	}
 
+	/**
+	 * Moves the document graph of the first other document into the base
+	 * document, if the base document is empty. This is the case for a slot
+	 * without a document in the base corpus structure, for which the
+	 * {@link Merger} created an empty base document. Merging into an empty
+	 * document would copy all nodes and relations of the other document one
+	 * by one. The other document is reported as deleted.
+	 * 
+	 * @param baseSubject
+	 *            the subject of the base document
+	 * @return the subject whose document graph was moved or null, if the
+	 *         base document is not empty or has no document graph
+	 */
+	private MappingSubject transferDocumentGraph(MappingSubject baseSubject) {
+		// a sleeping base document has no document graph, its content is only
+		// visible after waking it up
+		wakeUp(baseSubject);
+		SDocumentGraph baseGraph = getBaseDocument().getDocumentGraph();
+		if ((baseGraph == null) || (baseGraph.getNodes().size() > 0) || (baseGraph.getRelations().size() > 0) || (baseGraph.getLayers().size() > 0)) {
+			return null;
+		}
+		for (MappingSubject subj : getMappingSubjects()) {
+			if (subj != baseSubject) {
+				SDocument otherDocument = (SDocument) subj.getIdentifier().getIdentifiableElement();
+				wakeUp(subj);
+				SDocumentGraph otherGraph = otherDocument.getDocumentGraph();
+				if (otherGraph == null) {
+					// reported by mergeDocumentStructures
+					return null;
+				}
+				logger.debug("[Merger] Transfer document-structure of {} to empty base document {}. ", SaltUtil.getGlobalId(otherDocument.getIdentifier()), SaltUtil.getGlobalId(getBaseDocument().getIdentifier()));
+				getBaseDocument().setDocumentGraph(null);
+				// also removes the graph from the other document
+				otherGraph.setDocument(getBaseDocument());
+				subj.setMappingResult(DOCUMENT_STATUS.DELETED);
+				if ((subj.getDocumentController() != null) && (getMerger() != null)) {
+					getMerger().done(otherDocument.getIdentifier(), DOCUMENT_STATUS.DELETED);
+				}
+				return subj;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Drops everything collected while merging the slot. The mapper stays
+	 * reachable via its controller until the whole run ends, but the node map
+	 * and the container refer to nodes of the deleted other documents, which
+	 * otherwise could not be garbage collected. The base document is kept,
+	 * since it is referenced by its corpus graph anyway.
+	 */
+	private void releaseSlotState() {
+		node2NodeMap = null;
+		container = null;
+		textDiagnostics = new TextDiagnostics(logger.isDebugEnabled(), TextDiagnostics.DEFAULT_MAX_RETAINED_CHARS);
+	}
+
 	/**
 	 * A map to relate nodes of one graph to nodes to another graph.
 	 */
@@ -273,44 +345,37 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 		}
 		SDocument baseDocument = (SDocument) baseSubject.getIdentifier().getIdentifiableElement();
 
-		if ((baseSubject.getDocumentController() != null) && (getPepperMapperController() != null)) {
-			logger.trace("[Merger] Try to wake up base document {}. ", baseSubject.getDocumentController().getGlobalId());
-			// awake document
-			getPepperMapperController().getPermissionForProcessDoument(baseSubject.getDocumentController());
-			baseSubject.getDocumentController().awake();
-			logger.trace("[Merger] Successfully woke up base document {}. ", baseSubject.getDocumentController().getGlobalId());
-		}
+		wakeUp(baseSubject);
 
 		// normalize all texts of base document, therefore the base document
 		// needs to be woken up
 		normalizePrimaryTexts(baseDocument);
 
-		// merge two document-structures pairwise
+		List<MappingSubject> otherSubjects = new ArrayList<>();
 		for (MappingSubject subj : this.getMappingSubjects()) {
-			// for all documents
-			SDocument otherDocument = (SDocument) subj.getIdentifier().getIdentifiableElement();
-			if (otherDocument != getBaseDocument()) {
-				if ((subj.getDocumentController() != null) && (getPepperMapperController() != null)) {
-					logger.trace("[Merger] Try to wake up other document {}. ", subj.getDocumentController().getGlobalId());
-					// awake document
-					getPepperMapperController().getPermissionForProcessDoument(subj.getDocumentController());
-					subj.getDocumentController().awake();
-					logger.trace("[Merger] Successfully woke up other document {}. ", subj.getDocumentController().getGlobalId());
-				}
+			if ((subj.getIdentifier().getIdentifiableElement() != getBaseDocument()) && (!DOCUMENT_STATUS.DELETED.equals(subj.getMappingResult()))) {
+				// the document graph of a deleted document has already been
+				// transferred
+				otherSubjects.add(subj);
+			}
+		}
+		int mergeWindow = getMergeWindow();
+		if ((mergeWindow > 1) && (otherSubjects.size() > 1)) {
+			mergeDocumentStructuresInParallel(baseDocument, otherSubjects, mergeWindow);
+		} else {
+			// merge two document-structures pairwise
+			for (MappingSubject subj : otherSubjects) {
+				// for all documents
+				SDocument otherDocument = (SDocument) subj.getIdentifier().getIdentifiableElement();
+				wakeUp(subj);
 
 				normalizePrimaryTexts(otherDocument);
 
 				logger.debug("[Merger] Start merging of base document '{}' with {}. ", SaltUtil.getGlobalId(baseDocument.getIdentifier()), SaltUtil.getGlobalId(subj.getIdentifier()));
 				// merge the document content
-				mergeDocumentStructures(baseDocument, otherDocument);
+				mergeDocumentStructures(baseDocument, otherDocument, null);
 
-				// frees memory from other document
-				if (!isTestMode) {
-					getContainer().finishDocument(otherDocument);
-				}
-				if (subj.getDocumentController() != null) {
-					getMerger().done(otherDocument.getIdentifier(), DOCUMENT_STATUS.DELETED);
-				}
+				finishOtherDocument(subj);
 			}
 		}
 
@@ -320,53 +385,172 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 		}
 
 		if (logger.isDebugEnabled()) {
-			StringBuilder debug = new StringBuilder();
-
-			if (matchingTexts.size() > 0) {
-				debug.append("[Merger] mergable texts:\n");
-				int i = 1;
-				for (Pair<Pair<String, String>, Pair<String, String>> pair : matchingTexts) {
-					if (i > 1) {
-						debug.append("\n");
-					}
-					i++;
-					String baseId = pair.getLeft().getLeft();
-					String otherId = pair.getRight().getLeft();
-					String format = "\t%-" + (baseId.length() > otherId.length() ? baseId.length() : otherId.length()) + "s: ";
-					debug.append("<base> \t");
-					debug.append(String.format(format, baseId));
-					debug.append(pair.getLeft().getRight().substring("<base>".length()));
-					debug.append("\n");
-					debug.append("<other>\t");
-					debug.append(String.format(format, otherId));
-					debug.append(pair.getRight().getRight());
-					debug.append("\n");
-				}
+			logger.debug(textDiagnostics.report());
+		}
+	}
+
+	/**
+	 * Wakes up the document of the passed subject, if it is controlled by a
+	 * document controller and asleep. A document which has been kept awake
+	 * (see {@link MergerProperties#PROP_KEEP_DOCUMENTS_AWAKE}) already has
+	 * its place in main memory.
+	 */
+	private void wakeUp(MappingSubject subj) {
+		if ((subj.getDocumentController() != null) && (getPepperMapperController() != null) && (subj.getDocumentController().isAsleep())) {
+			logger.trace("[Merger] Try to wake up document {}. ", subj.getDocumentController().getGlobalId());
+			// awake document
+			getPepperMapperController().getPermissionForProcessDoument(subj.getDocumentController());
+			subj.getDocumentController().awake();
+			logger.trace("[Merger] Successfully woke up document {}. ", subj.getDocumentController().getGlobalId());
+		}
+	}
+
+	/**
+	 * Frees the memory used by the other document of the passed subject and
+	 * notifies the {@link Merger}, that it has been merged.
+	 */
+	private void finishOtherDocument(MappingSubject subj) {
+		SDocument otherDocument = (SDocument) subj.getIdentifier().getIdentifiableElement();
+		// frees memory from other document
+		if (!isTestMode) {
+			getContainer().finishDocument(otherDocument);
+		}
+		if (subj.getDocumentController() != null) {
+			getMerger().done(otherDocument.getIdentifier(), DOCUMENT_STATUS.DELETED);
+		}
+	}
+
+	/**
+	 * Returns the number of other documents to be normalized and aligned in
+	 * parallel, see {@link MergerProperties#PROP_MERGE_THREADS}.
+	 */
+	private int getMergeWindow() {
+		if (getMerger() != null) {
+			return getMerger().getMergeWindow();
+		}
+		if (getProperties() instanceof MergerProperties) {
+			return ((MergerProperties) getProperties()).getMergeThreads();
+		}
+		return 1;
+	}
+
+	/**
+	 * The result of normalizing an other document and aligning its texts with
+	 * the base texts, which is computed by a worker thread.
+	 */
+	private static class PreparedDocument {
+		/**
+		 * the container in which the other document was normalized and
+		 * aligned
+		 **/
+		private final TokenMergeContainer container;
+		/** the result of {@link MergerMapper#prepareAlignments(List, SDocument)} **/
+		private final List<PreparedAlignment> alignments;
+
+		private PreparedDocument(TokenMergeContainer container, List<PreparedAlignment> alignments) {
+			this.container = container;
+			this.alignments = alignments;
+		}
+	}
+
+	/**
+	 * Merges the passed other documents into the base document. Up to
+	 * <code>mergeWindow</code> other documents are normalized and aligned in
+	 * parallel by the worker pool of the {@link Merger}. Each of them is
+	 * aligned in its own {@link TokenMergeContainer}, which shares the data of
+	 * the base document read-only. Merging the aligned documents into the
+	 * base document graph is done by the calling thread one after another
+	 * and in the same order as the sequential merge, so the result is the
+	 * same.
+	 */
+	private void mergeDocumentStructuresInParallel(SDocument baseDocument, List<MappingSubject> otherSubjects, int mergeWindow) {
+		final List<STextualDS> baseTexts = new ArrayList<>(baseDocument.getDocumentGraph().getTextualDSs());
+		// the position mappings and fingerprints of the base texts are
+		// computed lazily, but they must not be modified while they are shared
+		for (STextualDS baseText : baseTexts) {
+			if (getContainer().getBaseTextPositionByNormalizedTextPosition(baseText, 0) == -1) {
+				getContainer().setBaseTextPositionByNormalizedTextPosition(baseText, this.createBaseTextNormOriginalMapping(baseText));
 			}
-			if (noMatchingTexts.size() > 0) {
-				debug.append("[Merger] NOT mergable texts:\n");
-				for (Pair<String, String> text : noMatchingTexts) {
-					if (text.getRight().startsWith("<base>")) {
-						debug.append("<base> ");
-						debug.append("\t");
-						debug.append(text.getLeft());
-						debug.append("\t");
-						debug.append(text.getRight().substring("<base>".length()));
-						debug.append("\n");
-					} else {
-						debug.append("<other>");
-						debug.append("\t");
-						debug.append(text.getLeft());
-						debug.append("\t");
-						debug.append(text.getRight());
-						debug.append("\n");
-					}
+			getFingerprint(baseText);
+		}
+		ExecutorService executor = null;
+		if (getMerger() != null) {
+			executor = getMerger().getMergeExecutor();
+		} else {
+			executor = Executors.newFixedThreadPool(mergeWindow);
+		}
+		Deque<Pair<MappingSubject, Future<PreparedDocument>>> preparing = new ArrayDeque<>();
+		try {
+			for (MappingSubject subj : otherSubjects) {
+				if (preparing.size() >= mergeWindow) {
+					mergePreparedDocument(baseDocument, preparing.poll());
 				}
+				wakeUp(subj);
+				final SDocument otherDocument = (SDocument) subj.getIdentifier().getIdentifiableElement();
+				final TokenMergeContainer snapshot = getContainer().createSnapshot(baseDocument);
+				Future<PreparedDocument> future = executor.submit(new Callable<PreparedDocument>() {
+					@Override
+					public PreparedDocument call() {
+						return prepareDocument(snapshot, baseTexts, otherDocument);
+					}
+				});
+				preparing.add(new ImmutablePair<>(subj, future));
+			}
+			while (!preparing.isEmpty()) {
+				mergePreparedDocument(baseDocument, preparing.poll());
+			}
+		} finally {
+			for (Pair<MappingSubject, Future<PreparedDocument>> entry : preparing) {
+				entry.getRight().cancel(true);
+			}
+			if (getMerger() == null) {
+				executor.shutdown();
 			}
-			logger.debug(debug.toString());
 		}
 	}
 
+	/**
+	 * Normalizes the passed other document and aligns its texts with the
+	 * passed base texts. This is called by a worker thread and must not modify
+	 * anything else than the passed container and the other document.
+	 */
+	private PreparedDocument prepareDocument(TokenMergeContainer container, List<STextualDS> baseTexts, SDocument otherDocument) {
+		MergerMapper worker = new MergerMapper();
+		worker.setProperties(getProperties());
+		worker.setTextAligner(getTextAligner());
+		worker.setBaseDocument(getBaseDocument());
+		worker.container = container;
+		worker.normalizePrimaryTexts(otherDocument);
+		return new PreparedDocument(container, worker.prepareAlignments(baseTexts, otherDocument));
+	}
+
+	/**
+	 * Waits until the passed other document is normalized and aligned and
+	 * merges it into the base document.
+	 */
+	private void mergePreparedDocument(SDocument baseDocument, Pair<MappingSubject, Future<PreparedDocument>> entry) {
+		MappingSubject subj = entry.getLeft();
+		SDocument otherDocument = (SDocument) subj.getIdentifier().getIdentifiableElement();
+		PreparedDocument prepared = null;
+		try {
+			prepared = entry.getRight().get();
+		} catch (InterruptedException e) {
+			throw new PepperModuleException(this, "Interrupted while aligning document '" + SaltUtil.getGlobalId(otherDocument.getIdentifier()) + "'. ", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new PepperModuleException(this, "Cannot align document '" + SaltUtil.getGlobalId(otherDocument.getIdentifier()) + "'. ", e.getCause());
+		}
+		getContainer().importDocument(prepared.container, otherDocument);
+
+		logger.debug("[Merger] Start merging of base document '{}' with {}. ", SaltUtil.getGlobalId(baseDocument.getIdentifier()), SaltUtil.getGlobalId(subj.getIdentifier()));
+		// merge the document content
+		mergeDocumentStructures(baseDocument, otherDocument, prepared.alignments);
+
+		finishOtherDocument(subj);
+	}
+
 	/**
 	 * This method merges the Document content of the other {@link SDocument} to
 	 * the base {@link SDocument} and uses the set of {@link SToken} which are
@@ -385,15 +569,14 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 	 *            inserted
 	 * @param otherDoc
 	 *            {@link SDocument} to be mapped into baseDoc
+	 * @param alignments
+	 *            the already computed alignments of the texts of otherDoc
+	 *            with the base texts or null, if they have to be computed
 	 */
-	private void mergeDocumentStructures(SDocument baseDoc, SDocument otherDoc) {
+	private void mergeDocumentStructures(SDocument baseDoc, SDocument otherDoc, List<PreparedAlignment> alignments) {
 		if ((baseDoc.getDocumentGraph() != null) && (otherDoc.getDocumentGraph() != null)) {
-			int initialSize = getBaseDocument().getDocumentGraph().getNodes().size();
-			if (otherDoc.getDocumentGraph().getNodes().size() > initialSize) {
-				initialSize = otherDoc.getDocumentGraph().getNodes().size();
-			}
-
-			node2NodeMap = new HashMap<>(initialSize);
+			// the keys of the map are the nodes of the other document
+			node2NodeMap = new IdentityHashMap<>(otherDoc.getDocumentGraph().getNodes().size());
 			boolean alignedTexts = false;
 			if (otherDoc.getDocumentGraph().getTextualDSs() != null) {
 				// there should be texts
@@ -404,7 +587,10 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 
 				// align all texts and create the nonEquivalentTokenSets
 				// / base text -- < Other Document -- nonEquivalentTokens >
-				alignedTexts = alignAllTexts(getBaseDocument(), otherDoc);
+				if (alignments == null) {
+					alignments = prepareAlignments(getBaseDocument().getDocumentGraph().getTextualDSs(), otherDoc);
+				}
+				alignedTexts = applyAlignments(alignments);
 			} else {
 				// there are no texts. So, just copy everything into
 				// the base document graph
@@ -419,12 +605,25 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 				MergeHandler handler = new MergeHandler(node2NodeMap, otherGraph, baseGraph, getContainer());
 				handler.setProperties((MergerProperties) getProperties());
 
-				List<SNode> roots = getRoots(otherGraph);
-				if ((roots == null) || (roots.size() == 0)) {
-					logger.warn("Cannot start the traversing for merging document-structure, since no tokens exist for document '" + SaltUtil.getGlobalId(otherGraph.getDocument().getIdentifier()) + "'.");
+				if (otherGraph.getTokens().isEmpty()) {
+					logger.warn("Cannot start merging the document-structure, since no tokens exist for document '" + SaltUtil.getGlobalId(otherGraph.getDocument().getIdentifier()) + "'.");
 				} else {
 					logger.trace("[Merger] Merging higher document-structure for [{}, {}]", SaltUtil.getGlobalId(baseDoc.getIdentifier()), SaltUtil.getGlobalId(otherDoc.getIdentifier()));
-					otherGraph.traverse(roots, GRAPH_TRAVERSE_TYPE.TOP_DOWN_DEPTH_FIRST, "merger_" + SaltUtil.getGlobalId(baseDoc.getIdentifier()), handler, false);
+					// spans and structures of the same height are matched
+					// against the base graph by the worker pool
+					int mergeWindow = getMergeWindow();
+					ExecutorService executor = null;
+					if (mergeWindow > 1) {
+						executor = (getMerger() != null) ? getMerger().getMergeExecutor() : Executors.newFixedThreadPool(mergeWindow);
+						handler.setExecutor(executor, mergeWindow);
+					}
+					try {
+						handler.mergeDocumentStructure();
+					} finally {
+						if ((executor != null) && (getMerger() == null)) {
+							executor.shutdown();
+						}
+					}
 					// finally merge pointing relations
 					handler.mergeSPointingRelations(otherGraph, baseGraph);
 					logger.trace("[Merger] Done with merging higher document-structure for [{}, {}]", SaltUtil.getGlobalId(baseDoc.getIdentifier()), SaltUtil.getGlobalId(otherDoc.getIdentifier()));
@@ -433,54 +632,6 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 		}
 	}
 
-	/**
-	 * Emits root nodes, which are roots for {@link SDominanceRelation} and
-	 * {@link SSpanningRelation} only. For instance for the sample:
-	 *
-	 * <pre>
-	 *       struct1
-	 *     //      ||
-	 *   span1     ||   span2
-	 * 	/    \     ||    |
-	 * tok1	tok2  tok3  tok4
-	 * </pre>
-	 * 
-	 * the nodes:
-	 * 
-	 * struct1 and span2 are returned, even if a pointing relation connects
-	 * struct1 and span2. Note that undominated tokens are also treated as roots.
-	 * 
-	 * @return
-	 */
-	@SuppressWarnings("unchecked")
-	private List<SNode> getRoots(SDocumentGraph other) {
-		Set<SNode> retSet = new LinkedHashSet<>();
-		List<SRelation> relations = new ArrayList<>();
-		relations.addAll((List<SRelation>) (List<? extends SRelation>) other.getSpanningRelations());
-		relations.addAll((List<SRelation>) (List<? extends SRelation>) other.getDominanceRelations());
-		Set<SNode> notRootElements = new HashSet<>();
-		retSet.addAll(other.getTokens()); // initially assume all tokens are roots, they will be removed if found to be dominated
-		for (SRelation<SNode, SNode> relation : relations) {
-			// mark destination as no root
-			if (!notRootElements.contains(relation.getTarget())) {
-				notRootElements.add(relation.getTarget());
-			}
-			// if source is not also a destination
-			if ((!notRootElements.contains(relation.getSource())) && (!retSet.contains(relation.getSource()))) {
-				retSet.add(relation.getSource());
-			}
-			// remove wrong stored nodes in retList
-			if (retSet.contains(relation.getTarget())) {
-				retSet.remove(relation.getTarget());
-			}
-		}
-		List<SNode> retVal = null;
-		if (!retSet.isEmpty()) {
-			retVal = new ArrayList<>(retSet);
-		}
-		return (retVal);
-	}
-
 	/** the {@link TokenMergeContainer} instance **/
 	protected TokenMergeContainer container = null;
 
@@ -569,32 +720,46 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 		if (sDocument.getDocumentGraph() != null) {
 			// check whether the document has any STextualDS
 			List<STextualDS> sTextualDSs = sDocument.getDocumentGraph().getTextualDSs();
+			// group the textual relations by their target in one pass
+			Map<STextualDS, List<STextualRelation>> textRelsByText = new HashMap<>();
+			for (STextualRelation textRel : sDocument.getDocumentGraph().getTextualRelations()) {
+				List<STextualRelation> textRels = textRelsByText.get(textRel.getTarget());
+				if (textRels == null) {
+					textRels = new ArrayList<>();
+					textRelsByText.put(textRel.getTarget(), textRels);
+				}
+				textRels.add(textRel);
+			}
 			for (STextualDS sTextualDS : sTextualDSs) {
 				// normalize all textual datasources
-				List<Integer> originalToNormalizedMapping = new ArrayList<>();
+				int[] originalToNormalizedMapping = new int[sTextualDS.getText().length() + 1];
 				String normalizedText = createOriginalToNormalizedMapping(sTextualDS, originalToNormalizedMapping);
-				for (STextualRelation textRel : sDocument.getDocumentGraph().getTextualRelations()) {
-					if (textRel.getTarget().equals(sTextualDS)) {
+				List<STextualRelation> textRels = textRelsByText.get(sTextualDS);
+				if (textRels != null) {
+					for (STextualRelation textRel : textRels) {
 						SToken sToken = textRel.getSource();
-						if (textRel.getStart() >= originalToNormalizedMapping.size()) {
+						if (textRel.getStart() >= originalToNormalizedMapping.length) {
 							throw new PepperModuleInternalException(this, "Cannot find token " + SaltUtil.getGlobalId(textRel.getSource().getIdentifier()) + " in  'originalToNormalizedMapping' list. ");
 						}
 						// the start position of current token in normalized
 						// text
-						int normalizedTokenStart = originalToNormalizedMapping.get(textRel.getStart());
+						int normalizedTokenStart = originalToNormalizedMapping[textRel.getStart()];
 						// the end position of current token in normalized text
 						int normalizedTokenEnd = 0;
-						if (textRel.getEnd() >= (originalToNormalizedMapping.size())) {
-							if (textRel.getEnd() >= (originalToNormalizedMapping.size() + 1)) {
-								throw new PepperModuleInternalException(this, "textRel.getEnd() >= (originalToNormalizedMapping.size()+1). ");
+						if (textRel.getEnd() >= (originalToNormalizedMapping.length)) {
+							if (textRel.getEnd() >= (originalToNormalizedMapping.length + 1)) {
+								throw new PepperModuleInternalException(this, "textRel.getEnd() >= (originalToNormalizedMapping.length+1). ");
 							} else {
-								normalizedTokenEnd = originalToNormalizedMapping.get(originalToNormalizedMapping.size() - 1) + 1;
+								normalizedTokenEnd = originalToNormalizedMapping[originalToNormalizedMapping.length - 1] + 1;
 							}
 						} else {
-							normalizedTokenEnd = originalToNormalizedMapping.get(textRel.getEnd());
+							normalizedTokenEnd = originalToNormalizedMapping[textRel.getEnd()];
 						}
 						getContainer().addAlignedToken(sTextualDS, sToken, normalizedTokenStart, normalizedTokenEnd);
 					}
+					// a token related to the text several times has no proper
+					// start or length
+					getContainer().getAlignedTokens(sTextualDS).setNumOfTextualRelations(textRels.size());
 				}
 				getContainer().addNormalizedText(sDocument, sTextualDS, normalizedText);
 			}
@@ -613,39 +778,8 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 	 * @param originalToNormalizedMapping
 	 * @return
 	 */
-	private String createOriginalToNormalizedMapping(STextualDS sTextualDS, List<Integer> originalToNormalizedMapping) {
-		StringBuilder normalizedTextBuilder = new StringBuilder();
-		int start = 0;
-		char[] chr = sTextualDS.getText().toCharArray();
-		for (char c : chr) {
-			String stringToEscape = ((MergerProperties) getProperties()).getEscapeMapping().get(String.valueOf(c));
-			if (stringToEscape == null) {
-				originalToNormalizedMapping.add(start);
-				normalizedTextBuilder.append(c);
-				start += 1;
-			} else {
-				if (stringToEscape.length() > 0) {
-					originalToNormalizedMapping.add(start);
-					for (int i = 0; i < stringToEscape.length(); i++) {
-						// one char is mapped to many. all chars have the same
-						// index in the original text
-						start += 1;
-					}
-					normalizedTextBuilder.append(stringToEscape);
-				} else {
-					// one char is mapped to the empty string.
-					originalToNormalizedMapping.add(start);
-				}
-			}
-		}
-		// add an additional entry for the position after the last character
-		// (imagine an empty token beginning and ending at last position of the
-		// text). This is necessary, because text positions are positions
-		// BETWEEN characters.
-		originalToNormalizedMapping.add(start++);
-
-		String normalizedText = normalizedTextBuilder.toString();
-		return normalizedText;
+	private String createOriginalToNormalizedMapping(STextualDS sTextualDS, int[] originalToNormalizedMapping) {
+		return getTextNormalizer().normalize(sTextualDS.getText(), originalToNormalizedMapping);
 	}
 
 	/**
@@ -657,15 +791,15 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 	 * 
 	 * @param sTextualDS
 	 *            The {@link STextualDS}
-	 * @return A list of integers. The integer at index i specifies the position
+	 * @return An array of integers. The integer at index i specifies the position
 	 *         of the i'th character of the normalized text in the original
 	 *         text. Example: Let c be the second character in the original text
 	 *         and a whitespace the first character in the original text. Since
 	 *         the whitespace is removed, c is the first character in the
-	 *         normalized text. The first element of the returned list will
+	 *         normalized text. The first element of the returned array will
 	 *         contain the number 2 since c was the second char, originally.
 	 */
-	protected List<Integer> createBaseTextNormOriginalMapping(STextualDS sTextualDS) {
+	protected int[] createBaseTextNormOriginalMapping(STextualDS sTextualDS) {
 		/**
 		 * Example1:
 		 * 
@@ -680,65 +814,63 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 		 * 0->1 1->2 2->3 3->3 4->4 5->6 6->7
 		 * </pre>
 		 */
-		List<Integer> normalizedToOriginalMapping = new ArrayList<>();
-		int start = 0;
-		char[] chr = sTextualDS.getText().toCharArray();
-		for (char c : chr) {
-			String stringToEscape = ((MergerProperties) getProperties()).getEscapeMapping().get(String.valueOf(c));
-			if (stringToEscape == null) {
-				normalizedToOriginalMapping.add(start);
-			} else {
-				if (stringToEscape.length() > 0) {
-					char[] chr2 = stringToEscape.toCharArray();
-					for (int i = 0; i < chr2.length; i++) {
-						// one char is mapped to many. all chars have the same
-						// index in the original text
-						normalizedToOriginalMapping.add(start);
-					}
-				} else { // one char is mapped to the empty string.
-							// do nothing
-				}
-			}
-			start += 1;
-		}
-		// add an additional entry for the position after the last character
-		// (imagine an empty token beginning and ending at last position of the
-		// text). This is necessary, because text positions are positions
-		// BETWEEN characters.
-		normalizedToOriginalMapping.add(start++);
-		return normalizedToOriginalMapping;
+		return getTextNormalizer().createNormalizedToOriginalMapping(sTextualDS.getText());
 	}
 
-	/** A list of all pairs of matching texts to be reported. **/
-	private List<Pair<Pair<String, String>, Pair<String, String>>> matchingTexts = new ArrayList<>();
 	/**
-	 * A list of all texts, for which no matching partners have been found to be
-	 * reported.
+	 * The pairs of matching texts and the texts without matching partner to
+	 * be reported. Excerpts of the texts are only kept in debug mode.
 	 **/
-	private Set<Pair<String, String>> noMatchingTexts = new HashSet<>();
+	private TextDiagnostics textDiagnostics = new TextDiagnostics(logger.isDebugEnabled(), TextDiagnostics.DEFAULT_MAX_RETAINED_CHARS);
+
 	/**
-	 * A list to store all texts, for which matching partners have been found.
-	 * This is used to compute the correct list of {@link #noMatchingTexts}.
-	 **/
-	private Set<String> matchingTextsIdx = new HashSet<>();
+	 * The result of aligning a pair of texts by
+	 * {@link MergerMapper#prepareAlignments(List, SDocument)}.
+	 */
+	private static class PreparedAlignment {
+		private final TextAlignment alignment;
+		/** the result of {@link MergerMapper#alignTexts(TextAlignment, Set, Map)} **/
+		private final boolean alignable;
+		/**
+		 * the equivalent tokens found by
+		 * {@link MergerMapper#alignTexts(TextAlignment, Set, Map)}, the token
+		 * of the other text is the key
+		 **/
+		private final Map<SNode, SNode> equivalences;
+
+		private PreparedAlignment(TextAlignment alignment, boolean alignable, Map<SNode, SNode> equivalences) {
+			this.alignment = alignment;
+			this.alignable = alignable;
+			this.equivalences = equivalences;
+		}
+	}
 
 	/**
 	 * This method tries to find matching texts in base document and other
-	 * document. A cross product is computed.
+	 * document. A cross product is computed. Only the container is modified,
+	 * the found equivalences are returned to be applied by
+	 * {@link #applyAlignments(List)}.
+	 * 
+	 * @param baseTexts
+	 *            the texts of the base document
+	 * @param otherDoc
+	 *            the other document
+	 * @return the alignments for all pairs of texts ordered by base text
 	 */
-	private boolean alignAllTexts(SDocument baseDoc, SDocument otherDoc) {
+	private List<PreparedAlignment> prepareAlignments(List<STextualDS> baseTexts, SDocument otherDoc) {
 		// ignore the base document and align all other
 		if (otherDoc.getDocumentGraph() == null) {
 			throw new PepperModuleDataException(this, "Cannot map document '" + SaltUtil.getGlobalId(otherDoc.getIdentifier()) + "', since it does not contain a document-structure.");
 		}
-		boolean retVal = false;
+		List<PreparedAlignment> alignments = new ArrayList<>();
 		if ((otherDoc.getDocumentGraph().getTextualDSs() != null) && (otherDoc.getDocumentGraph().getTextualDSs().size() > 0)) {
 			// The other document has at least one text
-			Set<SToken> nonEquivalentTokenInOtherTexts = new HashSet<>();
-
-			for (STextualDS baseText : getBaseDocument().getDocumentGraph().getTextualDSs()) {
+			List<STextualDS> otherTexts = otherDoc.getDocumentGraph().getTextualDSs();
+			int[][] offsets = computeOffsets(baseTexts, otherTexts);
+			for (int baseIdx = 0; baseIdx < baseTexts.size(); baseIdx++) {
+				STextualDS baseText = baseTexts.get(baseIdx);
 				// for all texts of the base document
-				nonEquivalentTokenInOtherTexts = new HashSet<>();
+				Set<SToken> nonEquivalentTokenInOtherTexts = new HashSet<>();
 				// initialize the set of nonEquivalent token.
 				// Initially, all token do not have an equivalent.
 				// in alignTexts, tokens which DO have an equivalent
@@ -746,36 +878,129 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 				if (otherDoc.getDocumentGraph().getTokens() != null) {
 					nonEquivalentTokenInOtherTexts.addAll(otherDoc.getDocumentGraph().getTokens());
 				}
-				for (STextualDS otherText : otherDoc.getDocumentGraph().getTextualDSs()) {
+				for (int otherIdx = 0; otherIdx < otherTexts.size(); otherIdx++) {
+					STextualDS otherText = otherTexts.get(otherIdx);
 					// align the current base text with all texts of
 					// the other document
-					boolean isAlignable = alignTexts(baseText, otherText, nonEquivalentTokenInOtherTexts, node2NodeMap);
-					if (isAlignable) {
-						retVal = true;
-						Pair<String, String> base = new ImmutablePair<>(baseText.getId(), "<base>" + baseText.getText());
-						Pair<String, String> other = new ImmutablePair<>(otherText.getId(), otherText.getText());
-						matchingTexts.add(new ImmutablePair<>(base, other));
-						matchingTextsIdx.add(SaltUtil.getGlobalId(otherText.getIdentifier()));
-						matchingTextsIdx.add(SaltUtil.getGlobalId(baseText.getIdentifier()));
-						noMatchingTexts.remove(other);
-						noMatchingTexts.remove(base);
-
-						// add matching texts to a list of all matching nodes
-						node2NodeMap.put(otherText, baseText);
-						mergeTokens(baseText, otherText, node2NodeMap);
-					}
-					if (!matchingTextsIdx.contains(SaltUtil.getGlobalId(otherText.getIdentifier()))) {
-						noMatchingTexts.add(new ImmutablePair<>(otherText.getId(), otherText.getText()));
-					}
-				}
-				if (!matchingTextsIdx.contains(SaltUtil.getGlobalId(baseText.getIdentifier()))) {
-					noMatchingTexts.add(new ImmutablePair<>(baseText.getId(), "<base>" + baseText.getText()));
+					TextAlignment alignment = computeAlignment(baseText, otherText, (offsets == null) ? null : offsets[baseIdx][otherIdx]);
+					Map<SNode, SNode> equivalences = new LinkedHashMap<>();
+					boolean isAlignable = alignTexts(alignment, nonEquivalentTokenInOtherTexts, equivalences);
+					alignments.add(new PreparedAlignment(alignment, isAlignable, equivalences));
 				}
 			} // for all texts of the base document
 		} // The other document has at least one text
+		return (alignments);
+	}
+
+	/**
+	 * The multi pattern search scans each text once, but a step in the scan
+	 * is about ten times as expensive as a step of the pairwise search. It is
+	 * used, when there are at least that many pairs of texts per text.
+	 */
+	private static final int MIN_PAIRS_PER_TEXT_FOR_MULTI_PATTERN = 16;
+
+	/**
+	 * Searches the positions of all pairs of base and other texts at once, if
+	 * the {@link TextAligner} is a {@link MultiPatternTextAligner} and there
+	 * are enough pairs, see {@link #MIN_PAIRS_PER_TEXT_FOR_MULTI_PATTERN}.
+	 * All other texts are searched in one scan of each base text and all base
+	 * texts in one scan of each other text, the result of the scan of the
+	 * bigger text is used for each pair.
+	 * 
+	 * @return the offset of the smaller text in the bigger text for each pair
+	 *         of base text and other text or null, if the offsets have to be
+	 *         searched one after another
+	 */
+	private int[][] computeOffsets(List<STextualDS> baseTexts, List<STextualDS> otherTexts) {
+		if ((!(getTextAligner() instanceof MultiPatternTextAligner)) || (baseTexts.size() * otherTexts.size() < MIN_PAIRS_PER_TEXT_FOR_MULTI_PATTERN * (baseTexts.size() + otherTexts.size()))) {
+			return null;
+		}
+		MultiPatternTextAligner aligner = (MultiPatternTextAligner) getTextAligner();
+		String[] normalizedBaseTexts = new String[baseTexts.size()];
+		for (int i = 0; i < baseTexts.size(); i++) {
+			normalizedBaseTexts[i] = getContainer().getLowerCaseNormalizedText(baseTexts.get(i));
+		}
+		String[] normalizedOtherTexts = new String[otherTexts.size()];
+		for (int i = 0; i < otherTexts.size(); i++) {
+			normalizedOtherTexts[i] = getContainer().getLowerCaseNormalizedText(otherTexts.get(i));
+		}
+		if ((Arrays.asList(normalizedBaseTexts).contains(null)) || (Arrays.asList(normalizedOtherTexts).contains(null))) {
+			// reported by computeAlignment
+			return null;
+		}
+		List<String> baseList = Arrays.asList(normalizedBaseTexts);
+		List<String> otherList = Arrays.asList(normalizedOtherTexts);
+		// offsets of the other texts in the base texts and vice versa
+		int[][] offsets = aligner.indexOf(baseList, otherList, getTextNormalizer());
+		int[][] reverseOffsets = aligner.indexOf(otherList, baseList, getTextNormalizer());
+		for (int baseIdx = 0; baseIdx < normalizedBaseTexts.length; baseIdx++) {
+			for (int otherIdx = 0; otherIdx < normalizedOtherTexts.length; otherIdx++) {
+				if (normalizedBaseTexts[baseIdx].length() < normalizedOtherTexts[otherIdx].length()) {
+					// the smaller text is searched in the bigger one
+					offsets[baseIdx][otherIdx] = reverseOffsets[otherIdx][baseIdx];
+				}
+			}
+		}
+		return offsets;
+	}
+
+	/**
+	 * Adds the equivalences of the passed alignments to the node map and
+	 * merges the tokens of all alignable texts into the base text, in the
+	 * order of the passed list.
+	 * 
+	 * @param alignments
+	 *            the result of {@link #prepareAlignments(List, SDocument)}
+	 * @return true, if at least one pair of texts is alignable
+	 */
+	private boolean applyAlignments(List<PreparedAlignment> alignments) {
+		for (PreparedAlignment prepared : alignments) {
+			if (prepared.alignable) {
+				checkAlignedTokens(prepared.alignment.getSmallerText());
+			}
+		}
+		boolean retVal = false;
+		for (int i = 0; i < alignments.size(); i++) {
+			PreparedAlignment prepared = alignments.get(i);
+			STextualDS baseText = prepared.alignment.getBaseText();
+			STextualDS otherText = prepared.alignment.getOtherText();
+			node2NodeMap.putAll(prepared.equivalences);
+			if (prepared.alignable) {
+				retVal = true;
+				textDiagnostics.addMatch(baseText, otherText);
+
+				// add matching texts to a list of all matching nodes
+				node2NodeMap.put(otherText, baseText);
+				mergeTokens(prepared.alignment, node2NodeMap);
+			}
+			textDiagnostics.addNoMatch(otherText, false);
+			boolean isLastOfBaseText = (i + 1 == alignments.size()) || (alignments.get(i + 1).alignment.getBaseText() != baseText);
+			if (isLastOfBaseText) {
+				textDiagnostics.addNoMatch(baseText, true);
+			}
+		}
 		return (retVal);
 	}
 
+	/**
+	 * Checks that each token of the passed text has a start and length in its
+	 * normalized text. Equivalent tokens are only searched for tokens, which
+	 * have been collected when normalizing the text, see
+	 * {@link AlignedTokensMap#findEquivalentTokens(AlignedTokensMap, int)}.
+	 * The tokens without a proper start or length have been counted by
+	 * {@link #normalizePrimaryTexts(SDocument)}.
+	 * 
+	 * @param smallerText
+	 *            the smaller text of an alignable pair of texts
+	 */
+	private void checkAlignedTokens(STextualDS smallerText) {
+		AlignedTokensMap smallerTextTokens = getContainer().getAlignedTokens(smallerText);
+		if ((smallerTextTokens != null) && (smallerTextTokens.getNumOfUnalignedTokens() > 0)) {
+			// some tokens have either no start or no length -> ERROR
+			throw new PepperModuleException(this, "The STextualDS " + smallerText.getId() + " contains " + smallerTextTokens.getNumOfUnalignedTokens() + " SToken(s) having no proper start or length. They were probably not aligned correctly.");
+		}
+	}
+
 	/**
 	 * This method aligns the normalized texts of the given {@link STextualDS}
 	 * objects and <b>also</b> aligns the {@link SToken} including the creation
@@ -796,6 +1021,38 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 	 * @return true on success and false on failure
 	 */
 	protected boolean alignTexts(STextualDS baseText, STextualDS otherText, Set<SToken> nonEquivalentTokenInOtherTexts, Map<SNode, SNode> equivalenceMap) {
+		return alignTexts(computeAlignment(baseText, otherText), nonEquivalentTokenInOtherTexts, equivalenceMap);
+	}
+
+	/**
+	 * Computes the {@link TextAlignment} of the normalized texts of the given
+	 * {@link STextualDS} objects. The smaller of both normalized texts is
+	 * searched in the bigger one. The result is meant to be computed once per
+	 * pair of texts and to be passed to
+	 * {@link #alignTexts(TextAlignment, Set, Map)} and
+	 * {@link #mergeTokens(TextAlignment, Map)}.
+	 * 
+	 * @param baseText
+	 *            the base {@link STextualDS}
+	 * @param otherText
+	 *            the other {@link STextualDS}
+	 * @return the alignment of both texts
+	 */
+	protected TextAlignment computeAlignment(STextualDS baseText, STextualDS otherText) {
+		return computeAlignment(baseText, otherText, null);
+	}
+
+	/**
+	 * Computes the {@link TextAlignment} of the normalized texts of the given
+	 * {@link STextualDS} objects, see
+	 * {@link #computeAlignment(STextualDS, STextualDS)}.
+	 * 
+	 * @param offset
+	 *            the position of the smaller normalized text in the bigger
+	 *            one, if it was already searched by
+	 *            {@link #computeOffsets(List, List)}, or null to search it
+	 */
+	private TextAlignment computeAlignment(STextualDS baseText, STextualDS otherText, Integer offset) {
 		if (baseText == null) {
 			throw new PepperModuleException(this, "Cannot align the Text of the documents since the base SDocument reference is NULL");
 		}
@@ -803,13 +1060,12 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 			throw new PepperModuleException(this, "Cannot align the Text of the documents since the other SDocument reference is NULL");
 		}
 
-		boolean returnVal = false;
 		// first we need the two normalized texts
-		String normalizedBaseText = getContainer().getNormalizedText(baseText);
+		String normalizedBaseText = getContainer().getLowerCaseNormalizedText(baseText);
 		if (normalizedBaseText == null) {
 			throw new PepperModuleInternalException(this, "Could not align text '" + SaltUtil.getGlobalId(baseText.getIdentifier()) + "', because a normalized text for base text was not computed. ");
 		}
-		String normalizedOtherText = getContainer().getNormalizedText(otherText);
+		String normalizedOtherText = getContainer().getLowerCaseNormalizedText(otherText);
 		if (normalizedOtherText == null) {
 			throw new PepperModuleInternalException(this, "Could not align texts, because a normalized text for other text '" + SaltUtil.getGlobalId(otherText.getIdentifier()) + "' was not computed. ");
 		}
@@ -818,79 +1074,148 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 			getContainer().setBaseTextPositionByNormalizedTextPosition(baseText, this.createBaseTextNormOriginalMapping(baseText));
 		}
 
-		int offset = -1;
+		boolean baseTextBigger = (normalizedBaseText.length() >= normalizedOtherText.length());
+		boolean identicalTokenization = hasIdenticalTokenization(baseText, otherText, normalizedBaseText, normalizedOtherText);
+		if (identicalTokenization) {
+			// both texts are equal, nothing to search
+			offset = 0;
+		} else if (offset != null) {
+			// already searched
+		} else if (!mayBeAlignable(baseText, otherText, baseTextBigger)) {
+			// the smaller text cannot be contained in the bigger one
+			offset = -1;
+		} else if (baseTextBigger) {
+			// if the other text fits into the base text by size
+			offset = getTextAligner().indexOf(normalizedBaseText, normalizedOtherText, getTextNormalizer());
+		} else {
+			// if the base text fits into the other text by size
+			offset = getTextAligner().indexOf(normalizedOtherText, normalizedBaseText, getTextNormalizer());
+		}
+		return new TextAlignment(baseText, otherText, normalizedBaseText, normalizedOtherText, baseTextBigger, offset, identicalTokenization);
+	}
+
+	/**
+	 * Checks whether both texts have the same lower cased normalized text and
+	 * the same tokenization, which is the case for documents produced from
+	 * the same text and tokenization by different annotation tools. The
+	 * cached hash codes of the texts and the hashes over the token
+	 * boundaries are compared first, so that this check is cheap for
+	 * different texts.
+	 * 
+	 * @return true, if the tokens of both texts can be paired by their
+	 *         position, see
+	 *         {@link AlignedTokensMap#hasSameTokenization(AlignedTokensMap)}
+	 */
+	private boolean hasIdenticalTokenization(STextualDS baseText, STextualDS otherText, String normalizedBaseText, String normalizedOtherText) {
+		if ((baseText == otherText) || (normalizedBaseText.isEmpty()) || (normalizedBaseText.hashCode() != normalizedOtherText.hashCode()) || (!normalizedBaseText.equals(normalizedOtherText))) {
+			return false;
+		}
+		AlignedTokensMap baseTextTokens = getContainer().getAlignedTokens(baseText);
+		AlignedTokensMap otherTextTokens = getContainer().getAlignedTokens(otherText);
+		return ((baseTextTokens != null) && (otherTextTokens != null) && (baseTextTokens.hasSameTokenization(otherTextTokens)));
+	}
+
+	/**
+	 * Compares the {@link TextFingerprint}s of both texts.
+	 * 
+	 * @return false, if the smaller text cannot be contained in the bigger
+	 *         one, true if it may be contained
+	 */
+	private boolean mayBeAlignable(STextualDS baseText, STextualDS otherText, boolean baseTextBigger) {
+		TextFingerprint baseFingerprint = getFingerprint(baseText);
+		TextFingerprint otherFingerprint = getFingerprint(otherText);
+		if (baseTextBigger) {
+			return baseFingerprint.mayContain(otherFingerprint);
+		} else {
+			return otherFingerprint.mayContain(baseFingerprint);
+		}
+	}
 
-		// set the bigger and smaller text
-		STextualDS biggerText = baseText;
-		STextualDS smallerText = otherText;
+	/**
+	 * Returns the {@link TextFingerprint} of the lower cased normalized text
+	 * of the passed text. Fingerprints are computed on first use, since texts
+	 * having an identical tokenization are aligned without them.
+	 */
+	private TextFingerprint getFingerprint(STextualDS text) {
+		TextFingerprint fingerprint = getContainer().getFingerprint(text);
+		if (fingerprint == null) {
+			fingerprint = new TextFingerprint(getContainer().getLowerCaseNormalizedText(text), getTextNormalizer());
+			getContainer().setFingerprint(text, fingerprint);
+		}
+		return fingerprint;
+	}
 
-		if (normalizedBaseText.length() >= normalizedOtherText.length()) {
-			// if the other text fits into the base text by size
-			offset = indexOfOmitChars(normalizedBaseText.toLowerCase(), normalizedOtherText.toLowerCase(), true, ((MergerProperties) getProperties()).getPunctuations());
-		} // if the other text fits into the base text by size
-		else { // if the base text fits into the other text by size
-			offset = indexOfOmitChars(normalizedOtherText.toLowerCase(), normalizedBaseText.toLowerCase(), true, ((MergerProperties) getProperties()).getPunctuations());
-			biggerText = otherText;
-			smallerText = baseText;
-		} // if the base text fits into the other text by size
-
-		if (offset != -1) {
+	/**
+	 * Aligns the {@link SToken} of the texts of the passed
+	 * {@link TextAlignment} including the creation of equivalent
+	 * {@link SToken} information. If a {@link SToken} has an equivalent
+	 * {@link SToken} in the base text, it is removed from the
+	 * nonEquivalentTokenInOtherTexts set.
+	 * 
+	 * @param alignment
+	 *            the alignment of base and other text
+	 * @param nonEquivalentTokenInOtherTexts
+	 *            A HashSet which contains all tokens which do not have an
+	 *            equivalent in the base text
+	 * @param equivalenceMap
+	 *            A map of tokens in the other text with their equivalent token
+	 *            in the base text as value
+	 * @return true on success and false on failure
+	 */
+	protected boolean alignTexts(TextAlignment alignment, Set<SToken> nonEquivalentTokenInOtherTexts, Map<SNode, SNode> equivalenceMap) {
+		boolean returnVal = false;
+		STextualDS baseText = alignment.getBaseText();
+		STextualDS biggerText = alignment.getBiggerText();
+		STextualDS smallerText = alignment.getSmallerText();
+		int offset = alignment.getOffset();
+
+		if ((alignment.isIdenticalTokenization()) && (getContainer().getIdenticallyTokenizedBaseText(alignment.getOtherText()) == null)) {
+			// the i-th token of the other text is equivalent to the i-th
+			// token of the base text, the container resolves the mapping by
+			// position instead of storing it per token
+			returnVal = true;
+			STextualDS otherText = alignment.getOtherText();
+			getContainer().addIdenticalTokenization(baseText, otherText);
+			List<SToken> baseTextTokens = getAlignedTokens(baseText);
+			List<SToken> otherTextTokens = getAlignedTokens(otherText);
+			for (int i = 0; i < otherTextTokens.size(); i++) {
+				SToken otherTextToken = otherTextTokens.get(i);
+				equivalenceMap.put(otherTextToken, baseTextTokens.get(i));
+				nonEquivalentTokenInOtherTexts.remove(otherTextToken);
+			}
+		} else if (offset != -1) {
 			// if the normalized smaller text is contained in the normalized
 			// bigger text
 			returnVal = true;
-			// get the tokens of the other text.
-			List<SToken> textTokens = new ArrayList<>();
-			for (Relation e : smallerText.getGraph().getInRelations(smallerText.getId())) {
-				// get all tokens of the smaller text
-				if (e instanceof STextualRelation) {
-					textTokens.add(((STextualRelation) e).getSource());
+			// the tokens of both texts were collected when normalizing the
+			// texts, a token of the smaller text is equivalent to a token of
+			// the bigger text with the start offset+startOfSmallerToken and
+			// the same length
+			AlignedTokensMap smallerTextTokens = getContainer().getAlignedTokens(smallerText);
+			AlignedTokensMap biggerTextTokens = getContainer().getAlignedTokens(biggerText);
+			if ((smallerTextTokens != null) && (biggerTextTokens != null)) {
+				for (Pair<SToken, SToken> equivalence : smallerTextTokens.findEquivalentTokens(biggerTextTokens, offset)) {
+					SToken smallerTextToken = equivalence.getLeft();
+					SToken biggerTextToken = equivalence.getRight();
+					// we want to have equivalences: otherTextToken -->
+					// baseTextToken
+					if (biggerText.equals(baseText)) {
+						// if the base text is the bigger text
+						getContainer().addTokenMapping(biggerTextToken, smallerTextToken, smallerText);
+						equivalenceMap.put(smallerTextToken, biggerTextToken);
+
+						nonEquivalentTokenInOtherTexts.remove(smallerTextToken);
+					} // if the base text is the bigger text
+					else {
+						// if the base text is the smaller text:
+						// smallerText = baseText
+						// smallerTextToken = baseTextToken
+						getContainer().addTokenMapping(smallerTextToken, biggerTextToken, biggerText);
+						equivalenceMap.put(biggerTextToken, smallerTextToken);
+						nonEquivalentTokenInOtherTexts.remove(biggerTextToken);
+					} // if the base text is the smaller text
 				}
-			} // get all tokens of the smaller text
-
-			for (SToken smallerTextToken : textTokens) {
-				// get the aligned token start and length
-				int smallerTextTokenStart = getContainer().getAlignedTokenStart(smallerText, smallerTextToken);
-				int smallerTextTokenLength = getContainer().getAlignedTokenLength(smallerText, smallerTextToken);
-
-				if (smallerTextTokenStart != -1 && smallerTextTokenLength != -1) {
-					// the token of the smaller text has a start and end in the
-					// smaller text: get the aligned token from the base
-					// document which has the start of offset+startOfOtherToken
-					SToken biggerTextToken = getContainer().getAlignedTokenByStart(biggerText, (smallerTextTokenStart + offset));
-					if (biggerTextToken != null) {
-						// there is some token in the bigger text which has the
-						// same start
-						if (getContainer().getAlignedTokenLength(biggerText, biggerTextToken) == smallerTextTokenLength) {
-							// start and lengths are identical. We found an
-							// equivalence class
-							// we want to have equivalences: otherTextToken -->
-							// baseTextToken
-							if (biggerText.equals(baseText)) {
-								// if the base text is the bigger text
-								getContainer().addTokenMapping(biggerTextToken, smallerTextToken, smallerText);
-								equivalenceMap.put(smallerTextToken, biggerTextToken);
-
-								nonEquivalentTokenInOtherTexts.remove(smallerTextToken);
-							} // if the base text is the bigger text
-							else {
-								// if the base text is the smaller text:
-								// smallerText = baseText
-								// smallerTextToken = baseTextToken
-								getContainer().addTokenMapping(smallerTextToken, biggerTextToken, biggerText);
-								equivalenceMap.put(biggerTextToken, smallerTextToken);
-								nonEquivalentTokenInOtherTexts.remove(biggerTextToken);
-							} // if the base text is the smaller text
-
-						} // start and lengths are identical. We found
-							// anequivalence class
-					}
-
-				} else {
-					// the other token has either no start or no length ->ERROR
-					throw new PepperModuleException(this, "The SToken " + smallerText.getId() + " of the STextualDS " + smallerText.getId() + " has no proper start or length. It was probably not aligned correctly.");
-				} // the other token has either no start or no length -> ERROR
 			}
-
 		}
 		// get base text
 		return returnVal;
@@ -902,6 +1227,52 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 	 * ******************************************************************
 	 */
 
+	/**
+	 * The {@link TextAligner} used to find a normalized text in another one.
+	 **/
+	private TextAligner textAligner = new AhoCorasickTextAligner();
+
+	/**
+	 * @return the {@link TextAligner} used to find a normalized text in
+	 *         another one.
+	 */
+	public TextAligner getTextAligner() {
+		return textAligner;
+	}
+
+	/**
+	 * @param textAligner
+	 *            the {@link TextAligner} used to find a normalized text in
+	 *            another one.
+	 */
+	public void setTextAligner(TextAligner textAligner) {
+		this.textAligner = textAligner;
+	}
+
+	/**
+	 * Returns the tokens of the passed text in the order of their textual
+	 * relations, as collected by {@link #normalizePrimaryTexts(SDocument)}.
+	 * Tokens created while merging are not contained.
+	 * 
+	 * @param text
+	 * @return the tokens or an empty list, if the text has no tokens
+	 */
+	private List<SToken> getAlignedTokens(STextualDS text) {
+		AlignedTokensMap alignedTokens = getContainer().getAlignedTokens(text);
+		if (alignedTokens == null) {
+			return Collections.<SToken> emptyList();
+		}
+		return alignedTokens.getTokens();
+	}
+
+	/**
+	 * @return the {@link TextNormalizer} compiled from the escape mapping and
+	 *         the punctuations of the {@link MergerProperties}
+	 */
+	protected TextNormalizer getTextNormalizer() {
+		return ((MergerProperties) getProperties()).getTextNormalizer();
+	}
+
 	/**
 	 * This method searches for the first occurence of the stringToSearchFor in
 	 * the stringToSearchIn and ommits all chars in the omitCharArray. The index
@@ -912,12 +1283,15 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 	 * @param stringToSearchFor
 	 *            String which is to search
 	 * @param useIndexof
-	 *            If this flag is set, all omit chars are removed from both
-	 *            provided strings and a normal indexOf is used
+	 *            If this flag is set, the search is delegated to the
+	 *            {@link TextAligner} returned by {@link #getTextAligner()}
 	 * @param omitCharArray
 	 * @return the index on success and -1 on failure
 	 */
 	protected int indexOfOmitChars(String stringToSearchIn, String stringToSearchFor, boolean useIndexOf, Set<Character> omitChars) {
+		if (useIndexOf) {
+			return getTextAligner().indexOf(stringToSearchIn, stringToSearchFor, new TextNormalizer(null, omitChars));
+		}
 		/* remove all omit chars from the stringToSearchFor */
 		StringBuilder builder = new StringBuilder();
 		char[] chr = stringToSearchFor.toCharArray();
@@ -928,29 +1302,6 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 		}
 		String sourceString = builder.toString();
 
-		if (useIndexOf) {
-			builder = new StringBuilder();
-			List<Integer> normalizedToOriginalMapping = new ArrayList<>();
-			int start = 0;
-			char[] chr2 = stringToSearchIn.toCharArray();
-			for (char targetChar : chr2) {
-				if (!omitChars.contains(targetChar)) { // no omit char
-					normalizedToOriginalMapping.add(start);
-					builder.append(targetChar);
-				} else { // omit char
-				}
-				start += 1;
-			}
-			String targetString = builder.toString();
-			int index = targetString.indexOf(sourceString);
-			if (index != -1) {
-				return normalizedToOriginalMapping.get(index);
-			} else {
-				return index;
-			}
-
-		}
-
 		/* Initialize needed structures */
 		char c = sourceString.toCharArray()[0];
 		int position = 0;
@@ -1028,39 +1379,44 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 	 * @param equivalenceMap
 	 */
 	protected void mergeTokens(STextualDS baseText, STextualDS otherText, Map<SNode, SNode> equivalenceMap) {
+		mergeTokens(computeAlignment(baseText, otherText), equivalenceMap);
+	}
+
+	/**
+	 * Merges the tokens of the other text of the passed {@link TextAlignment}
+	 * into its base text. For each token of the other text, which has no
+	 * equivalent in the base text, a new token is created in the base text.
+	 * 
+	 * @param alignment
+	 *            the alignment of base and other text
+	 * @param equivalenceMap
+	 *            A map of tokens in the other text with their equivalent token
+	 *            in the base text as value
+	 */
+	protected void mergeTokens(TextAlignment alignment, Map<SNode, SNode> equivalenceMap) {
 		// We want to merge the tokens of the other text into the base text.
-		// first we need the two normalized texts
+		STextualDS baseText = alignment.getBaseText();
+		STextualDS otherText = alignment.getOtherText();
 		String normalizedBaseText = getContainer().getNormalizedText(baseText);
-		String normalizedOtherText = getContainer().getNormalizedText(otherText);
-
-		// set the mapping of the normalized base text to the original base text
-		if (getContainer().getBaseTextPositionByNormalizedTextPosition(baseText, 0) == -1) {
-			getContainer().setBaseTextPositionByNormalizedTextPosition(baseText, this.createBaseTextNormOriginalMapping(baseText));
-		}
-
-		int offset = -1;
-
-		// set the bigger and smaller text
-		STextualDS biggerText = baseText;
-
-		if (normalizedBaseText.length() >= normalizedOtherText.length()) {
-			// if the other text fits into the base text by size
-			offset = indexOfOmitChars(normalizedBaseText.toLowerCase(), normalizedOtherText.toLowerCase(), true, ((MergerProperties) getProperties()).getPunctuations());
-		} // if the other text fits into the base text by size
-		else { // if the base text fits into the other text by size
-			offset = indexOfOmitChars(normalizedOtherText.toLowerCase(), normalizedBaseText.toLowerCase(), true, ((MergerProperties) getProperties()).getPunctuations());
-			biggerText = otherText;
-		} // if the base text fits into the other text by size
-
-		if (offset != -1) { // one of the texts is alignable to the other
+		STextualDS biggerText = alignment.getBiggerText();
+		int offset = alignment.getOffset();
+
+		if ((alignment.isIdenticalTokenization()) && (getContainer().getIdenticallyTokenizedBaseText(otherText) == baseText)) {
+			// the tokens were paired by position in alignTexts, no token has
+			// to be created
+			List<SToken> baseTextTokens = getAlignedTokens(baseText);
+			List<SToken> otherTextTokens = getAlignedTokens(otherText);
+			for (int i = 0; i < otherTextTokens.size(); i++) {
+				SaltUtil.moveAnnotations(otherTextTokens.get(i), baseTextTokens.get(i));
+				SaltUtil.moveMetaAnnotations(otherTextTokens.get(i), baseTextTokens.get(i));
+			}
+		} else if (offset != -1) { // one of the texts is alignable to the other
 							// next step: get all tokens of the other text
-			List<SToken> textTokens = new ArrayList<>();
-			for (Relation e : otherText.getGraph().getInRelations(otherText.getId())) {
-				// get all tokens of the other text
-				if (e instanceof STextualRelation) {
-					textTokens.add(((STextualRelation) e).getSource());
-				}
-			} // get all tokens of the other text
+			List<SToken> textTokens = getAlignedTokens(otherText);
+			// the tokens to be created are collected and created at once
+			TokenBatch newTokens = new TokenBatch((SDocumentGraph) baseText.getGraph());
+			List<SToken> newTokenSources = new ArrayList<>();
+			List<Boolean> newTokenEquivalences = new ArrayList<>();
 			for (SToken otherTextToken : textTokens) {
 				// for every token in the other text First, search in the
 				// equivalence map for the token
@@ -1091,7 +1447,9 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 							}
 							// create the new token in the base text with the
 							// new start and end value
-							baseTextToken = baseText.getGraph().createToken(baseText, newStart, newEnd);
+							newTokens.add(baseText, newStart, newEnd);
+							newTokenSources.add(otherTextToken);
+							newTokenEquivalences.add(Boolean.FALSE);
 						} // the base text is the bigger text
 						else { // the base text is the smaller text
 								// compute the new start and end
@@ -1109,9 +1467,10 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 								if (newEnd < 0) {
 									throw new PepperModuleException(this, "Cannot create a token, since the SEnd value is '-1' for merging '" + SaltUtil.getGlobalId(otherTextToken.getIdentifier()) + "' ('" + otherTextToken.getGraph().getText(otherTextToken) + "') into '" + SaltUtil.getGlobalId(baseText.getGraph().getIdentifier()) + "'.");
 								}
-								baseTextToken = baseText.getGraph().createToken(baseText, newStart, newEnd);
+								newTokens.add(baseText, newStart, newEnd);
+								newTokenSources.add(otherTextToken);
 								// mark the new token as equivalent
-								equivalenceMap.put(otherTextToken, baseTextToken);
+								newTokenEquivalences.add(Boolean.TRUE);
 							} // the new token would be in the interval of the
 								// base text.
 
@@ -1120,12 +1479,23 @@ public class MergerMapper extends PepperMapperImpl implements PepperMapper {
 				} // The other text token does not have an equivalent token in
 					// the base text. Try to create it.
 				if (baseTextToken != null) {
-					// there already is an equivalent token or a token was
-					// created move the annos to the new token
+					// there already is an equivalent token, move the annos to
+					// it
 					SaltUtil.moveAnnotations(otherTextToken, baseTextToken);
 					SaltUtil.moveMetaAnnotations(otherTextToken, baseTextToken);
-				} // there already is an equivalent token or a token was created
+				} // there already is an equivalent token
 			} // for every token in the other text
+			List<SToken> createdTokens = newTokens.create();
+			for (int i = 0; i < createdTokens.size(); i++) {
+				SToken otherTextToken = newTokenSources.get(i);
+				SToken baseTextToken = createdTokens.get(i);
+				if (newTokenEquivalences.get(i)) {
+					equivalenceMap.put(otherTextToken, baseTextToken);
+				}
+				// move the annos to the new token
+				SaltUtil.moveAnnotations(otherTextToken, baseTextToken);
+				SaltUtil.moveMetaAnnotations(otherTextToken, baseTextToken);
+			}
 		} // one of the texts is alignable to the other
 			// move the annotations from the other text to the base text
 		SaltUtil.moveAnnotations(otherText, baseText);
@@ -36,6 +36,29 @@ public class MergerProperties extends PepperModuleProperties {
 	 * workflow description). The value either could be 'true' or false.
 	 **/
 	public static final String PROP_FIRST_AS_BASE = "firstAsBase";
+	/**
+	 * Number of threads used to normalize and align the other documents of a
+	 * slot in parallel. The default is 1, which merges the documents one after
+	 * another.
+	 **/
+	public static final String PROP_MERGE_THREADS = "mergeThreads";
+	/**
+	 * If this property is set to 'true', arriving documents are kept in main
+	 * memory until their slot is complete and are only sent to sleep, when
+	 * the main memory is needed.
+	 **/
+	public static final String PROP_KEEP_DOCUMENTS_AWAKE = "keepDocumentsAwake";
+	/**
+	 * Maximal estimated number of nodes and relations of all documents merged
+	 * at the same time.
+	 **/
+	public static final String PROP_MAX_ELEMENTS_IN_MEMORY = "maxElementsInMemory";
+	/**
+	 * Rough estimate of the main memory needed by a node or relation including
+	 * its identifier, labels and index entries, used to derive the default of
+	 * {@link #PROP_MAX_ELEMENTS_IN_MEMORY} from the maximal heap size.
+	 **/
+	public static final int ESTIMATED_BYTES_PER_ELEMENT = 1024;
 
 	/** Default punctuation characters **/
 	public static final String PUNCTUATION_DEFAULT = "'.',',',':',';','!','?','(',')','{','}','<','>'";
@@ -57,6 +80,9 @@ public class MergerProperties extends PepperModuleProperties {
 		this.addProperty(new PepperModuleProperty<String>(PROP_PUNCTUATIONS, String.class, "Determines the punctuation characters used to be ignored for detecting equal textual data. The value is a comma separated list, each entry must be surrounded by a quot: 'PUNCTUATION' (, 'PUNCTUATION')* .", PUNCTUATION_DEFAULT));
 		this.addProperty(new PepperModuleProperty<String>(PROP_ESCAPE_MAPPING, String.class, "Determines the mapping used in normalization step, to map special characters like umlauts. This value is a comma separated list of mappings: \"REPLACED_CHARACTER\" : \"REPLACEMENT\" (, \"REPLACED_CHARACTER\" : \"REPLACEMENT\")*", ESCAPE_MAPPING_DEFAULT));
 		this.addProperty(new PepperModuleProperty<Boolean>(PROP_FIRST_AS_BASE, Boolean.class, "If this property is set to 'true', the base document is always the one, which belongs to the first SCorpusGraph (the first importer in Pepper workflow description). The value either could be 'true' or 'false'. If this value is set to false, the base document is computed automically (normally the one with the largest primary text).", false, false));
+		this.addProperty(new PepperModuleProperty<Integer>(PROP_MERGE_THREADS, Integer.class, "Determines the number of threads used to normalize and align the documents to be merged into a base document in parallel. Only the modification of the base document is done by one thread. The default is 1, which merges one document after the other.", 1, false));
+		this.addProperty(new PepperModuleProperty<Boolean>(PROP_KEEP_DOCUMENTS_AWAKE, Boolean.class, "If this property is set to 'true', arriving documents are kept in main memory as long as the maximal number of documents in main memory allows it. When space is needed, the documents whose merging is expected to start last (according to the import order) are sent to sleep first. If this property is set to 'false', every arriving document is sent to sleep until all documents to be merged with it have arrived.", false, false));
+		this.addProperty(new PepperModuleProperty<Long>(PROP_MAX_ELEMENTS_IN_MEMORY, Long.class, "Determines the maximal number of nodes and relations of all documents, which are merged at the same time. Slots of documents are only merged in parallel, when their estimated number of elements fits into this limit; a single slot is always merged. If the value is 0, the limit is derived from the maximal heap size assuming " + ESTIMATED_BYTES_PER_ELEMENT + " bytes per element.", 0L, false));
 		this.addProperty(new PepperModuleProperty<Boolean>(PROP_COPY_NODES, Boolean.class, "Determines if SSpan and SStructure nodes should be copied or merged. Merged means to move all annotations to the equivalent in base document. If value is true they will be copied.", false, false));
 	}
 
@@ -134,6 +160,23 @@ public class MergerProperties extends PepperModuleProperties {
 		return (escapeMapping);
 	}
 
+	/** precompiled form of escape mapping and punctuations **/
+	private TextNormalizer textNormalizer = null;
+
+	/**
+	 * Returns a {@link TextNormalizer} compiled from
+	 * {@link #getEscapeMapping()} and {@link #getPunctuations()}. The
+	 * normalizer is created once and shared by all mappers.
+	 *
+	 * @return
+	 */
+	public synchronized TextNormalizer getTextNormalizer() {
+		if (textNormalizer == null) {
+			textNormalizer = new TextNormalizer(getEscapeMapping(), getPunctuations());
+		}
+		return (textNormalizer);
+	}
+
 	/**
 	 * If this property is set to 'true', the base document is always the one,
 	 * which belongs to the first SCorpusGraph (the first importer in Pepper
@@ -157,4 +200,45 @@ public class MergerProperties extends PepperModuleProperties {
 		PepperModuleProperty<Boolean> prop = (PepperModuleProperty<Boolean>) getProperty(PROP_COPY_NODES);
 		return (Boolean.valueOf(prop.getValue()));
 	}
+
+	/**
+	 * If this property is set to 'true', arriving documents are kept in main
+	 * memory until their slot is complete and are only sent to sleep, when
+	 * the main memory is needed.
+	 * 
+	 * @return
+	 */
+	public Boolean isKeepDocumentsAwake() {
+		PepperModuleProperty<Boolean> prop = (PepperModuleProperty<Boolean>) getProperty(PROP_KEEP_DOCUMENTS_AWAKE);
+		return (Boolean.valueOf(prop.getValue()));
+	}
+
+	/**
+	 * Returns the maximal estimated number of nodes and relations of all
+	 * documents merged at the same time. If the property is not set, it is
+	 * derived from the maximal heap size.
+	 * 
+	 * @return
+	 */
+	public long getMaxElementsInMemory() {
+		PepperModuleProperty<Long> prop = (PepperModuleProperty<Long>) getProperty(PROP_MAX_ELEMENTS_IN_MEMORY);
+		if ((prop.getValue() == null) || (prop.getValue() <= 0)) {
+			return Runtime.getRuntime().maxMemory() / ESTIMATED_BYTES_PER_ELEMENT;
+		}
+		return (prop.getValue());
+	}
+
+	/**
+	 * Returns the number of threads used to normalize and align the documents
+	 * to be merged into a base document in parallel.
+	 * 
+	 * @return a value >= 1
+	 */
+	public int getMergeThreads() {
+		PepperModuleProperty<Integer> prop = (PepperModuleProperty<Integer>) getProperty(PROP_MERGE_THREADS);
+		if ((prop.getValue() == null) || (prop.getValue() < 1)) {
+			return 1;
+		}
+		return (prop.getValue());
+	}
 }
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.List;
+
+/**
+ * A {@link TextAligner}, which is able to search several texts inside another
+ * text at once. This is used by the {@link MergerMapper} to align all texts of
+ * a pair of documents with one scan per text.
+ */
+public interface MultiPatternTextAligner extends TextAligner {
+	/**
+	 * Searches for the first occurence of each of the
+	 * <code>stringsToSearchFor</code> in <code>stringToSearchIn</code>, while
+	 * all characters being a punctuation for <code>normalizer</code> are
+	 * ignored in all strings. The result for each string is the same as the
+	 * one of {@link #indexOf(String, String, TextNormalizer)}.
+	 * 
+	 * @param stringToSearchIn
+	 *            String in which is searched
+	 * @param stringsToSearchFor
+	 *            Strings which are to search
+	 * @param normalizer
+	 *            determines the characters to be ignored in all strings
+	 * @return for each of the <code>stringsToSearchFor</code> the index of
+	 *         its first occurence in <code>stringToSearchIn</code> (counting
+	 *         omitted characters) or -1 if there is no such occurence
+	 */
+	public int[] indexOf(String stringToSearchIn, List<String> stringsToSearchFor, TextNormalizer normalizer);
+
+	/**
+	 * Searches for the first occurence of each of the
+	 * <code>stringsToSearchFor</code> in each of the
+	 * <code>stringsToSearchIn</code>. This is the same as calling
+	 * {@link #indexOf(String, List, TextNormalizer)} for each of the
+	 * <code>stringsToSearchIn</code>, but the strings to search for need to
+	 * be prepared only once.
+	 * 
+	 * @param stringsToSearchIn
+	 *            Strings in which is searched
+	 * @param stringsToSearchFor
+	 *            Strings which are to search
+	 * @param normalizer
+	 *            determines the characters to be ignored in all strings
+	 * @return for each of the <code>stringsToSearchIn</code> the result of
+	 *         {@link #indexOf(String, List, TextNormalizer)}
+	 */
+	public int[][] indexOf(List<String> stringsToSearchIn, List<String> stringsToSearchFor, TextNormalizer normalizer);
+}
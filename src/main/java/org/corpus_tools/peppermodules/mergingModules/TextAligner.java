@@ -0,0 +1,44 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+/**
+ * A strategy to find the position of a normalized text inside another
+ * normalized text, while ignoring the punctuation characters of a
+ * {@link TextNormalizer} in both texts. This is used by the
+ * {@link MergerMapper} to align the primary texts of the documents to be
+ * merged.
+ */
+public interface TextAligner {
+	/**
+	 * Searches for the first occurence of <code>stringToSearchFor</code> in
+	 * <code>stringToSearchIn</code>, while all characters being a punctuation
+	 * for <code>normalizer</code> are ignored in both strings.
+	 * 
+	 * @param stringToSearchIn
+	 *            String in which is searched
+	 * @param stringToSearchFor
+	 *            String which is to search
+	 * @param normalizer
+	 *            determines the characters to be ignored in both strings
+	 * @return the index of the first occurence in
+	 *         <code>stringToSearchIn</code> (counting omitted characters) or
+	 *         -1 if there is no such occurence
+	 */
+	public int indexOf(String stringToSearchIn, String stringToSearchFor, TextNormalizer normalizer);
+}
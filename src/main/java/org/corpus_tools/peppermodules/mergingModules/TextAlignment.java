@@ -0,0 +1,128 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import org.corpus_tools.salt.common.STextualDS;
+
+/**
+ * The result of aligning the normalized text of a base {@link STextualDS} with
+ * the normalized text of an other {@link STextualDS}. An alignment is computed
+ * once per pair of texts by {@link MergerMapper#computeAlignment} and is then
+ * shared by the alignment of tokens and the merging of tokens.
+ */
+public class TextAlignment {
+	/** the text of the base document **/
+	private final STextualDS baseText;
+	/** the text of the other document **/
+	private final STextualDS otherText;
+	/** lower cased normalized text of {@link #baseText} **/
+	private final String normalizedBaseText;
+	/** lower cased normalized text of {@link #otherText} **/
+	private final String normalizedOtherText;
+	/**
+	 * true, if the normalized base text is at least as long as the normalized
+	 * other text
+	 **/
+	private final boolean baseTextBigger;
+	/**
+	 * the position of the smaller text in the bigger text or -1, if the texts
+	 * are not alignable
+	 **/
+	private final int offset;
+	/**
+	 * true, if both texts have the same normalized text and the same
+	 * tokenization, so that their tokens can be paired by position
+	 **/
+	private final boolean identicalTokenization;
+
+	public TextAlignment(STextualDS baseText, STextualDS otherText, String normalizedBaseText, String normalizedOtherText, boolean baseTextBigger, int offset) {
+		this(baseText, otherText, normalizedBaseText, normalizedOtherText, baseTextBigger, offset, false);
+	}
+
+	public TextAlignment(STextualDS baseText, STextualDS otherText, String normalizedBaseText, String normalizedOtherText, boolean baseTextBigger, int offset, boolean identicalTokenization) {
+		this.baseText = baseText;
+		this.otherText = otherText;
+		this.normalizedBaseText = normalizedBaseText;
+		this.normalizedOtherText = normalizedOtherText;
+		this.baseTextBigger = baseTextBigger;
+		this.offset = offset;
+		this.identicalTokenization = identicalTokenization;
+	}
+
+	/** the text of the base document **/
+	public STextualDS getBaseText() {
+		return baseText;
+	}
+
+	/** the text of the other document **/
+	public STextualDS getOtherText() {
+		return otherText;
+	}
+
+	/** lower cased normalized text of the base text **/
+	public String getNormalizedBaseText() {
+		return normalizedBaseText;
+	}
+
+	/** lower cased normalized text of the other text **/
+	public String getNormalizedOtherText() {
+		return normalizedOtherText;
+	}
+
+	/**
+	 * @return true, if the normalized base text is at least as long as the
+	 *         normalized other text
+	 */
+	public boolean isBaseTextBigger() {
+		return baseTextBigger;
+	}
+
+	/** the text in which the smaller text was searched **/
+	public STextualDS getBiggerText() {
+		return (baseTextBigger ? baseText : otherText);
+	}
+
+	/** the text which was searched in the bigger text **/
+	public STextualDS getSmallerText() {
+		return (baseTextBigger ? otherText : baseText);
+	}
+
+	/**
+	 * @return the position of the smaller text in the normalized bigger text
+	 *         or -1, if the texts are not alignable
+	 */
+	public int getOffset() {
+		return offset;
+	}
+
+	/**
+	 * @return true, if the smaller text is contained in the bigger one
+	 */
+	public boolean isAlignable() {
+		return (offset != -1);
+	}
+
+	/**
+	 * @return true, if both texts have the same normalized text and the same
+	 *         tokenization, the i-th token of the other text is equivalent to
+	 *         the i-th token of the base text
+	 */
+	public boolean isIdenticalTokenization() {
+		return identicalTokenization;
+	}
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.corpus_tools.salt.common.STextualDS;
+import org.corpus_tools.salt.util.SaltUtil;
+
+/**
+ * Collects the pairs of texts, which could be aligned, and the texts, for
+ * which no partner was found, to be reported in debug mode. A text is
+ * recorded by its id, length and hash code. An excerpt of the text is only
+ * captured, if requested, and the total number of characters retained for
+ * excerpts is limited, so that a slot of large documents does not keep
+ * copies of its primary texts.
+ */
+class TextDiagnostics {
+	/** maximal number of characters of an excerpt **/
+	static final int MAX_EXCERPT_LENGTH = 256;
+	/** default maximal number of characters of all excerpts **/
+	static final int DEFAULT_MAX_RETAINED_CHARS = 64 * 1024;
+
+	/** what is recorded about a text **/
+	private static class TextInfo {
+		private final String id;
+		private final boolean isBase;
+		private final int length;
+		private final int hash;
+		/** the beginning of the text or null, if not captured **/
+		private final String excerpt;
+
+		private TextInfo(String id, boolean isBase, int length, int hash, String excerpt) {
+			this.id = id;
+			this.isBase = isBase;
+			this.length = length;
+			this.hash = hash;
+			this.excerpt = excerpt;
+		}
+
+		private String describe() {
+			StringBuilder str = new StringBuilder();
+			if (excerpt != null) {
+				str.append(excerpt);
+				if (excerpt.length() < length) {
+					str.append("...");
+				}
+				str.append(" ");
+			}
+			str.append("[length ").append(length).append(", hash ").append(hash).append("]");
+			return str.toString();
+		}
+	}
+
+	/** whether excerpts are captured **/
+	private final boolean captureExcerpts;
+	/** number of characters left for excerpts **/
+	private int remainingChars;
+	/** recorded texts by global id, so each text is captured only once **/
+	private final Map<String, TextInfo> infos = new HashMap<>();
+	/** pairs of base text and other text, which could be aligned **/
+	private final List<TextInfo[]> matches = new ArrayList<>();
+	/** global ids of all texts contained in {@link #matches} **/
+	private final Set<String> matchedTexts = new HashSet<>();
+	/** texts without partner by global id in the order they were found **/
+	private final Map<String, TextInfo> unmatchedTexts = new LinkedHashMap<>();
+
+	/**
+	 * @param captureExcerpts
+	 *            whether excerpts of the texts are captured
+	 * @param maxRetainedChars
+	 *            maximal number of characters of all excerpts
+	 */
+	TextDiagnostics(boolean captureExcerpts, int maxRetainedChars) {
+		this.captureExcerpts = captureExcerpts;
+		this.remainingChars = maxRetainedChars;
+	}
+
+	private TextInfo getInfo(STextualDS text, boolean isBase) {
+		String globalId = SaltUtil.getGlobalId(text.getIdentifier());
+		TextInfo info = infos.get(globalId);
+		if (info == null) {
+			String string = (text.getText() == null) ? "" : text.getText();
+			String excerpt = null;
+			if ((captureExcerpts) && (remainingChars > 0)) {
+				// substring copies, the text itself is not retained
+				excerpt = string.substring(0, Math.min(string.length(), Math.min(MAX_EXCERPT_LENGTH, remainingChars)));
+				remainingChars -= excerpt.length();
+			}
+			info = new TextInfo(text.getId(), isBase, string.length(), string.hashCode(), excerpt);
+			infos.put(globalId, info);
+		}
+		return info;
+	}
+
+	/**
+	 * Records that the passed texts could be aligned.
+	 */
+	void addMatch(STextualDS baseText, STextualDS otherText) {
+		matches.add(new TextInfo[] { getInfo(baseText, true), getInfo(otherText, false) });
+		for (STextualDS text : new STextualDS[] { baseText, otherText }) {
+			String globalId = SaltUtil.getGlobalId(text.getIdentifier());
+			matchedTexts.add(globalId);
+			unmatchedTexts.remove(globalId);
+		}
+	}
+
+	/**
+	 * Records that no partner has been found for the passed text, unless it
+	 * already has been recorded as part of a match.
+	 */
+	void addNoMatch(STextualDS text, boolean isBase) {
+		String globalId = SaltUtil.getGlobalId(text.getIdentifier());
+		if ((!matchedTexts.contains(globalId)) && (!unmatchedTexts.containsKey(globalId))) {
+			unmatchedTexts.put(globalId, getInfo(text, isBase));
+		}
+	}
+
+	/**
+	 * @return a report of all recorded matches and texts without partner
+	 */
+	String report() {
+		StringBuilder debug = new StringBuilder();
+		if (matches.size() > 0) {
+			debug.append("[Merger] mergable texts:\n");
+			for (int i = 0; i < matches.size(); i++) {
+				if (i > 0) {
+					debug.append("\n");
+				}
+				String baseId = matches.get(i)[0].id;
+				String otherId = matches.get(i)[1].id;
+				String format = "\t%-" + Math.max(baseId.length(), otherId.length()) + "s: ";
+				debug.append("<base> \t");
+				debug.append(String.format(format, baseId));
+				debug.append(matches.get(i)[0].describe());
+				debug.append("\n");
+				debug.append("<other>\t");
+				debug.append(String.format(format, otherId));
+				debug.append(matches.get(i)[1].describe());
+				debug.append("\n");
+			}
+		}
+		if (unmatchedTexts.size() > 0) {
+			debug.append("[Merger] NOT mergable texts:\n");
+			for (TextInfo text : unmatchedTexts.values()) {
+				debug.append((text.isBase) ? "<base> " : "<other>");
+				debug.append("\t");
+				debug.append(text.id);
+				debug.append("\t");
+				debug.append(text.describe());
+				debug.append("\n");
+			}
+		}
+		return debug.toString();
+	}
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+/**
+ * A cheap summary of a lower cased normalized text, which allows to decide
+ * that another text cannot be contained in it without searching for it. All
+ * characters being a punctuation for the {@link TextNormalizer} are ignored,
+ * just like in a {@link TextAligner}. A fingerprint consists of
+ * <ul>
+ * <li>the number of characters,</li>
+ * <li>a histogram of the characters folded into {@link #HISTOGRAM_SIZE}
+ * buckets,</li>
+ * <li>a bit set of the hashes of all n-grams of length {@link #NGRAM_LENGTH}
+ * and</li>
+ * <li>the hashes of up to {@link #MAX_SAMPLES} n-grams sampled evenly over
+ * the text.</li>
+ * </ul>
+ * If a text is contained in another one, it is not longer, none of its
+ * histogram buckets is bigger and all of its n-grams are n-grams of the other
+ * text. So {@link #mayContain(TextFingerprint)} never rejects a contained text,
+ * but may accept a text, which is not contained.
+ */
+public class TextFingerprint {
+	/** number of buckets of the character histogram **/
+	public static final int HISTOGRAM_SIZE = 128;
+	/** length of the n-grams **/
+	public static final int NGRAM_LENGTH = 4;
+	/** maximal number of sampled n-grams **/
+	public static final int MAX_SAMPLES = 32;
+	/** maximal number of bits of the n-gram set (128 KB) **/
+	private static final int MAX_NGRAM_BITS = 1 << 20;
+
+	/** number of characters, which are not a punctuation **/
+	private final int length;
+	/** number of characters per bucket **/
+	private final int[] histogram = new int[HISTOGRAM_SIZE];
+	/** bit set of the hashes of all n-grams, its size is a power of two **/
+	private final long[] ngramBits;
+	/** hashes of the sampled n-grams **/
+	private final int[] samples;
+
+	/**
+	 * Computes the fingerprint of the passed text.
+	 * 
+	 * @param text
+	 *            the lower cased normalized text
+	 * @param normalizer
+	 *            determines the characters to be ignored
+	 */
+	public TextFingerprint(String text, TextNormalizer normalizer) {
+		char[] chars = new char[text.length()];
+		int numOfChars = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (!normalizer.isPunctuation(c)) {
+				chars[numOfChars++] = c;
+				histogram[c & (HISTOGRAM_SIZE - 1)]++;
+			}
+		}
+		length = numOfChars;
+		int numOfNgrams = Math.max(0, numOfChars - NGRAM_LENGTH + 1);
+		// about 8 bits per n-gram, at least one long
+		int numOfBits = 64;
+		while ((numOfBits < numOfNgrams * 8) && (numOfBits < MAX_NGRAM_BITS)) {
+			numOfBits *= 2;
+		}
+		ngramBits = new long[numOfBits / 64];
+		for (int i = 0; i < numOfNgrams; i++) {
+			int bit = hash(chars, i) & (numOfBits - 1);
+			ngramBits[bit >>> 6] |= 1L << bit;
+		}
+		samples = new int[Math.min(numOfNgrams, MAX_SAMPLES)];
+		for (int i = 0; i < samples.length; i++) {
+			// evenly spaced, the first and the last n-gram included
+			int position = (samples.length == 1) ? 0 : (int) ((long) i * (numOfNgrams - 1) / (samples.length - 1));
+			samples[i] = hash(chars, position);
+		}
+	}
+
+	private static int hash(char[] chars, int start) {
+		int hash = 0;
+		for (int i = start; i < start + NGRAM_LENGTH; i++) {
+			hash = hash * 31 + chars[i];
+		}
+		// spread the bits, since only the lower ones are used
+		hash *= 0x9E3779B1;
+		return hash ^ (hash >>> 15);
+	}
+
+	/**
+	 * @return the number of characters of the text, which are not a
+	 *         punctuation
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns false, if the text of the passed fingerprint cannot be contained
+	 * in the text of this fingerprint. A return value of true does not mean,
+	 * that it is contained.
+	 * 
+	 * @param other
+	 *            the fingerprint of the text to be searched in the text of this
+	 *            fingerprint
+	 * @return false if the text is definitely not contained
+	 */
+	public boolean mayContain(TextFingerprint other) {
+		if (other.length > length) {
+			return false;
+		}
+		for (int i = 0; i < HISTOGRAM_SIZE; i++) {
+			if (other.histogram[i] > histogram[i]) {
+				return false;
+			}
+		}
+		int mask = ngramBits.length * 64 - 1;
+		for (int sample : other.samples) {
+			int bit = sample & mask;
+			if ((ngramBits[bit >>> 6] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable and precompiled form of the escape mapping and the punctuation
+ * characters given by {@link MergerProperties}. The replacements of characters
+ * of the basic multilingual plane are stored in a dense table indexed by the
+ * character itself, replacements of supplementary characters are stored in a
+ * sorted table searched by binary search. Therefore normalizing a text does
+ * not allocate anything per character. <br/>
+ * An instance is obtained via {@link MergerProperties#getTextNormalizer()}.
+ */
+public class TextNormalizer {
+	/**
+	 * dense table for characters of the BMP. A value of 0 means the character
+	 * is not replaced, any other value is the index+1 of the replacement in
+	 * {@link #replacements}.
+	 **/
+	private final char[] replacementIndex;
+	/** all replacement strings, referenced by {@link #replacementIndex} **/
+	private final String[] replacements;
+	/** sorted supplementary code points to be replaced **/
+	private final int[] supplementaryCodePoints;
+	/** replacements of {@link #supplementaryCodePoints} (same index) **/
+	private final String[] supplementaryReplacements;
+	/** dense table of punctuation characters **/
+	private final boolean[] punctuations;
+
+	/**
+	 * Compiles the given escape mapping and punctuations. Keys of the escape
+	 * mapping, which are neither a single character nor a single supplementary
+	 * code point, are ignored, since normalization works character by
+	 * character.
+	 * 
+	 * @param escapeMapping
+	 *            characters to be replaced and their replacement, may be null
+	 * @param punctuations
+	 *            characters to be ignored when aligning texts, may be null
+	 */
+	public TextNormalizer(Map<String, String> escapeMapping, Set<Character> punctuations) {
+		List<String> bmpKeys = new ArrayList<>();
+		List<String> supplementaryKeys = new ArrayList<>();
+		int maxChar = -1;
+		if (escapeMapping != null) {
+			for (String key : escapeMapping.keySet()) {
+				if (key.length() == 1) {
+					bmpKeys.add(key);
+					maxChar = Math.max(maxChar, key.charAt(0));
+				} else if ((key.length() == 2) && (Character.isSupplementaryCodePoint(key.codePointAt(0)))) {
+					supplementaryKeys.add(key);
+				}
+			}
+		}
+		replacementIndex = new char[maxChar + 1];
+		replacements = new String[bmpKeys.size()];
+		for (int i = 0; i < bmpKeys.size(); i++) {
+			replacements[i] = escapeMapping.get(bmpKeys.get(i));
+			replacementIndex[bmpKeys.get(i).charAt(0)] = (char) (i + 1);
+		}
+
+		supplementaryCodePoints = new int[supplementaryKeys.size()];
+		for (int i = 0; i < supplementaryKeys.size(); i++) {
+			supplementaryCodePoints[i] = supplementaryKeys.get(i).codePointAt(0);
+		}
+		Arrays.sort(supplementaryCodePoints);
+		supplementaryReplacements = new String[supplementaryCodePoints.length];
+		for (int i = 0; i < supplementaryCodePoints.length; i++) {
+			supplementaryReplacements[i] = escapeMapping.get(new String(Character.toChars(supplementaryCodePoints[i])));
+		}
+
+		int maxPunctuation = -1;
+		if (punctuations != null) {
+			for (Character punctuation : punctuations) {
+				maxPunctuation = Math.max(maxPunctuation, punctuation);
+			}
+		}
+		this.punctuations = new boolean[maxPunctuation + 1];
+		if (punctuations != null) {
+			for (Character punctuation : punctuations) {
+				this.punctuations[punctuation] = true;
+			}
+		}
+	}
+
+	/**
+	 * @return true, if the passed character is a punctuation character, which
+	 *         is ignored when aligning texts
+	 */
+	public boolean isPunctuation(char c) {
+		return ((c < punctuations.length) && (punctuations[c]));
+	}
+
+	/**
+	 * Returns the replacement for the character (or the supplementary code
+	 * point) starting at position <code>index</code> of the passed text.
+	 * 
+	 * @return the replacement or null, if the character is not replaced
+	 */
+	public String getReplacement(String text, int index) {
+		char c = text.charAt(index);
+		if (Character.isHighSurrogate(c)) {
+			if (supplementaryCodePoints.length > 0) {
+				int pos = Arrays.binarySearch(supplementaryCodePoints, text.codePointAt(index));
+				if (pos >= 0) {
+					return supplementaryReplacements[pos];
+				}
+			}
+			return null;
+		}
+		if (c < replacementIndex.length) {
+			int i = replacementIndex[c];
+			if (i != 0) {
+				return replacements[i - 1];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Normalizes the passed text and fills the passed array with a mapping from
+	 * each position in the original text to the corresponding position in the
+	 * normalized text. The array needs an additional entry for the position
+	 * after the last character, so its length must be at least
+	 * <code>text.length() + 1</code>.
+	 * 
+	 * @param text
+	 *            the original text
+	 * @param originalToNormalizedMapping
+	 *            the array to be filled
+	 * @return the normalized text
+	 */
+	public String normalize(String text, int[] originalToNormalizedMapping) {
+		StringBuilder normalizedTextBuilder = new StringBuilder(text.length());
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			String replacement = getReplacement(text, i);
+			originalToNormalizedMapping[i] = start;
+			if (replacement == null) {
+				normalizedTextBuilder.append(text.charAt(i));
+				start += 1;
+			} else {
+				if (Character.isHighSurrogate(text.charAt(i))) {
+					// the low surrogate has the same position as the high one
+					i++;
+					originalToNormalizedMapping[i] = start;
+				}
+				// one char is mapped to many or to the empty string
+				normalizedTextBuilder.append(replacement);
+				start += replacement.length();
+			}
+		}
+		// add an additional entry for the position after the last character
+		// (imagine an empty token beginning and ending at last position of the
+		// text). This is necessary, because text positions are positions
+		// BETWEEN characters.
+		originalToNormalizedMapping[text.length()] = start;
+		return normalizedTextBuilder.toString();
+	}
+
+	/**
+	 * Creates a mapping from each position in the normalized version of the
+	 * passed text to the corresponding position in the original text. The
+	 * returned array contains an additional entry for the position after the
+	 * last character.
+	 * 
+	 * @param text
+	 *            the original text
+	 * @return the mapping
+	 */
+	public int[] createNormalizedToOriginalMapping(String text) {
+		// compute the length of the normalized text first, to allocate the
+		// mapping only once
+		int normalizedLength = 0;
+		for (int i = 0; i < text.length(); i++) {
+			String replacement = getReplacement(text, i);
+			if (replacement == null) {
+				normalizedLength++;
+			} else {
+				normalizedLength += replacement.length();
+				if (Character.isHighSurrogate(text.charAt(i))) {
+					i++;
+				}
+			}
+		}
+		int[] normalizedToOriginalMapping = new int[normalizedLength + 1];
+		int pos = 0;
+		for (int i = 0; i < text.length(); i++) {
+			String replacement = getReplacement(text, i);
+			if (replacement == null) {
+				normalizedToOriginalMapping[pos++] = i;
+			} else {
+				// one char is mapped to many. all chars have the same index in
+				// the original text. A char mapped to the empty string is
+				// skipped.
+				for (int j = 0; j < replacement.length(); j++) {
+					normalizedToOriginalMapping[pos++] = i;
+				}
+				if (Character.isHighSurrogate(text.charAt(i))) {
+					i++;
+				}
+			}
+		}
+		normalizedToOriginalMapping[pos] = text.length();
+		return normalizedToOriginalMapping;
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.corpus_tools.pepper.modules.exceptions.PepperModuleException;
+import org.corpus_tools.salt.SaltFactory;
+import org.corpus_tools.salt.common.SDocumentGraph;
+import org.corpus_tools.salt.common.STextualDS;
+import org.corpus_tools.salt.common.STextualRelation;
+import org.corpus_tools.salt.common.SToken;
+
+/**
+ * Collects tokens to be created in a document graph and creates them at once,
+ * after checking once per text that it belongs to the graph. The tokens are
+ * created in the order they were added and named by Salt.
+ */
+class TokenBatch {
+	/** the graph to create the tokens in **/
+	private final SDocumentGraph graph;
+	/** texts of the tokens in the order they were added **/
+	private final List<STextualDS> texts = new ArrayList<>();
+	/** start and end positions of the tokens in the order they were added **/
+	private int[] positions = new int[32];
+
+	public TokenBatch(SDocumentGraph graph) {
+		this.graph = graph;
+	}
+
+	/**
+	 * Adds a token to be created.
+	 * 
+	 * @return the position of the token in the list returned by
+	 *         {@link #create()}
+	 */
+	public int add(STextualDS text, int start, int end) {
+		int i = texts.size();
+		if (2 * i + 1 >= positions.length) {
+			positions = Arrays.copyOf(positions, positions.length * 2);
+		}
+		positions[2 * i] = start;
+		positions[2 * i + 1] = end;
+		texts.add(text);
+		return i;
+	}
+
+	public int size() {
+		return texts.size();
+	}
+
+	/**
+	 * Creates all added tokens and their textual relations in the graph. The
+	 * batch is empty afterwards.
+	 * 
+	 * @return the created tokens in the order they were added
+	 */
+	public List<SToken> create() {
+		final int n = texts.size();
+		SToken[] tokens = new SToken[n];
+		if (n > 0) {
+			Set<STextualDS> checkedTexts = new HashSet<>();
+			for (STextualDS text : texts) {
+				if (checkedTexts.add(text) && ((text.getId() == null) || (!graph.containsNode(text.getId())))) {
+					throw new PepperModuleException("Cannot create a token, since the text '" + text.getId() + "' does not belong to document graph '" + graph.getId() + "'. ");
+				}
+			}
+			for (int i = 0; i < n; i++) {
+				SToken token = SaltFactory.createSToken();
+				graph.addNode(token);
+				STextualRelation textRel = SaltFactory.createSTextualRelation();
+				textRel.setSource(token);
+				textRel.setTarget(texts.get(i));
+				textRel.setStart(positions[2 * i]);
+				textRel.setEnd(positions[2 * i + 1]);
+				graph.addRelation(textRel);
+				tokens[i] = token;
+			}
+		}
+		texts.clear();
+		return Arrays.asList(tokens);
+	}
+}
@@ -18,10 +18,13 @@
 package org.corpus_tools.peppermodules.mergingModules;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import org.corpus_tools.pepper.modules.exceptions.PepperModuleException;
 import org.corpus_tools.salt.common.SDocument;
 import org.corpus_tools.salt.common.STextualDS;
@@ -43,27 +46,75 @@ public class TokenMergeContainer {
 	 * This class contains all tokens which were aligned and allows a search for
 	 * specific {@link SToken} objects by their start position. Moreover, a
 	 * search for the start and length of a specific {@link SToken} object is
-	 * possible.
+	 * possible. <br/>
+	 * Each token gets a dense ordinal, start and end are stored in parallel
+	 * int arrays indexed by that ordinal. The index for searching by start is
+	 * a sorted array of starts, which is built lazily on the first search.
 	 */
 	public class AlignedTokensMap {
 		public AlignedTokensMap() {
-			this.tokenLeftMap = new HashMap<>();
-			this.tokenRightMap = new HashMap<>();
-			this.tokensByStart = new HashMap<>();
+			this.tokens = new IdentityIndex<>();
+			this.tokenLeft = new int[16];
+			this.tokenRight = new int[16];
 		}
 
-		private Map<SToken, Integer> tokenLeftMap = null;
-		private Map<SToken, Integer> tokenRightMap = null;
-		private Map<Integer, SToken> tokensByStart = null;
+		/** all contained tokens in the order they were added **/
+		private IdentityIndex<SToken> tokens = null;
+		/** start of each token, indexed by its ordinal **/
+		private int[] tokenLeft = null;
+		/** end of each token, indexed by its ordinal **/
+		private int[] tokenRight = null;
+		/** ascending distinct starts, null if not built yet **/
+		private int[] sortedStarts = null;
+		/** ordinal of the token for each entry in {@link #sortedStarts} **/
+		private int[] sortedStartOrdinals = null;
+		/**
+		 * hash over the start and end of all tokens in the order they were
+		 * added, built together with {@link #sortedStarts}
+		 **/
+		private int boundaryHash = 0;
+		/**
+		 * true, if the starts are strictly ascending in the order the tokens
+		 * were added, built together with {@link #sortedStarts}
+		 **/
+		private boolean ascendingStarts = false;
+		/**
+		 * number of textual relations of the text, which did not result in a
+		 * token of its own when normalizing the text
+		 **/
+		private int unalignedTokens = 0;
 
 		/**
 		 * This method returns all {@link SToken} objects contained in this
-		 * {@link AlignedTokensMap}
+		 * {@link AlignedTokensMap} in the order they were added.
 		 * 
 		 * @return all contained {@link SToken} objects
 		 */
 		public List<SToken> getTokens() {
-			return new ArrayList<>(tokenLeftMap.keySet());
+			return tokens.asList();
+		}
+
+		/**
+		 * Compares the number of textual relations of the text with the number
+		 * of contained tokens. Each textual relation, which did not result in
+		 * a token of its own, relates a token having no proper start or
+		 * length.
+		 * 
+		 * @param numOfTextualRelations
+		 *            the number of textual relations having the text as target
+		 */
+		public void setNumOfTextualRelations(int numOfTextualRelations) {
+			unalignedTokens = numOfTextualRelations - tokens.size();
+		}
+
+		/**
+		 * Returns the number of textual relations, which did not result in a
+		 * token of its own, see {@link #setNumOfTextualRelations(int)}.
+		 * 
+		 * @return the number of unaligned tokens or 0
+		 */
+		public int getNumOfUnalignedTokens() {
+			return unalignedTokens;
 		}
 
 		/**
@@ -78,9 +129,63 @@ public class TokenMergeContainer {
 		 *            the end value
 		 */
 		public void addToken(SToken tok, int left, int right) {
-			this.tokenLeftMap.put(tok, left);
-			this.tokenRightMap.put(tok, right);
-			this.tokensByStart.put(left, tok);
+			int ordinal = tokens.add(tok);
+			if (ordinal >= tokenLeft.length) {
+				tokenLeft = Arrays.copyOf(tokenLeft, tokenLeft.length * 2);
+				tokenRight = Arrays.copyOf(tokenRight, tokenRight.length * 2);
+			}
+			tokenLeft[ordinal] = left;
+			tokenRight[ordinal] = right;
+			sortedStarts = null;
+			sortedStartOrdinals = null;
+		}
+
+		/**
+		 * Sorts the ordinals by start. If several tokens have the same start,
+		 * the one added last is kept.
+		 */
+		private void buildStartIndex() {
+			int size = tokens.size();
+			long[] startAndOrdinal = new long[size];
+			for (int ordinal = 0; ordinal < size; ordinal++) {
+				startAndOrdinal[ordinal] = ((long) tokenLeft[ordinal] << 32) | ordinal;
+			}
+			Arrays.sort(startAndOrdinal);
+			int[] starts = new int[size];
+			int[] ordinals = new int[size];
+			int numOfStarts = 0;
+			for (int i = 0; i < size; i++) {
+				int start = (int) (startAndOrdinal[i] >> 32);
+				if ((numOfStarts == 0) || (starts[numOfStarts - 1] != start)) {
+					numOfStarts++;
+				}
+				// ordinals with equal start are ascending, the last one wins
+				starts[numOfStarts - 1] = start;
+				ordinals[numOfStarts - 1] = (int) startAndOrdinal[i];
+			}
+			sortedStarts = Arrays.copyOf(starts, numOfStarts);
+			sortedStartOrdinals = Arrays.copyOf(ordinals, numOfStarts);
+
+			int hash = 1;
+			boolean ascending = true;
+			for (int ordinal = 0; ordinal < size; ordinal++) {
+				hash = 31 * (31 * hash + tokenLeft[ordinal]) + tokenRight[ordinal];
+				if ((ordinal > 0) && (tokenLeft[ordinal] <= tokenLeft[ordinal - 1])) {
+					ascending = false;
+				}
+			}
+			boundaryHash = hash;
+			ascendingStarts = ascending;
+		}
+
+		/**
+		 * Builds the index used by {@link #getTokenByStart(int)}, if it does
+		 * not exist. Afterwards this map can be read by several threads.
+		 */
+		void prepareSearchByStart() {
+			if (sortedStarts == null) {
+				buildStartIndex();
+			}
 		}
 
 		/**
@@ -91,7 +196,109 @@ public class TokenMergeContainer {
 		 * @return The {@link SToken} object or null on failure
 		 */
 		public SToken getTokenByStart(int start) {
-			return this.tokensByStart.get(start);
+			prepareSearchByStart();
+			int i = Arrays.binarySearch(sortedStarts, start);
+			if (i < 0) {
+				return null;
+			}
+			return tokens.get(sortedStartOrdinals[i]);
+		}
+
+		/**
+		 * Finds the tokens of this map having an equivalent in the passed map.
+		 * The equivalent of a token is the token of the passed map, which has
+		 * the start of the token plus the passed offset and the same length. If
+		 * several tokens of the passed map have that start, the one added last
+		 * is regarded, like in {@link #getTokenByStart(int)}. <br/>
+		 * Both maps are walked in the order of the starts in a single merge
+		 * join.
+		 * 
+		 * @param other
+		 *            the map to search the equivalents in
+		 * @param offset
+		 *            the start of the tokens of this map in the text of the
+		 *            other map
+		 * @return pairs of a token of this map and its equivalent, ordered by
+		 *         start and for equal starts in the order the tokens were
+		 *         added to this map
+		 */
+		public List<Pair<SToken, SToken>> findEquivalentTokens(AlignedTokensMap other, int offset) {
+			other.prepareSearchByStart();
+			int size = tokens.size();
+			long[] startAndOrdinal = new long[size];
+			for (int ordinal = 0; ordinal < size; ordinal++) {
+				startAndOrdinal[ordinal] = ((long) tokenLeft[ordinal] << 32) | ordinal;
+			}
+			Arrays.sort(startAndOrdinal);
+			List<Pair<SToken, SToken>> equivalents = new ArrayList<>();
+			int j = 0;
+			for (int i = 0; (i < size) && (j < other.sortedStarts.length); i++) {
+				int ordinal = (int) startAndOrdinal[i];
+				int start = tokenLeft[ordinal] + offset;
+				while ((j < other.sortedStarts.length) && (other.sortedStarts[j] < start)) {
+					j++;
+				}
+				if ((j < other.sortedStarts.length) && (other.sortedStarts[j] == start)) {
+					int otherOrdinal = other.sortedStartOrdinals[j];
+					if (other.tokenRight[otherOrdinal] - other.tokenLeft[otherOrdinal] == tokenRight[ordinal] - tokenLeft[ordinal]) {
+						equivalents.add(new ImmutablePair<>(tokens.get(ordinal), other.tokens.get(otherOrdinal)));
+					}
+				}
+			}
+			return equivalents;
+		}
+
+		/**
+		 * Checks whether the tokens of this map and of the passed map have the
+		 * same starts and ends in the same order. The hashes over the starts
+		 * and ends are compared first, so that different tokenizations are
+		 * usually rejected without comparing them token by token. <br/>
+		 * The starts of this map additionally have to be strictly ascending.
+		 * Then, the equivalent of the i-th token of the passed map is the i-th
+		 * token of this map, since no other token of this map shares its start
+		 * (see {@link #findEquivalentTokens(AlignedTokensMap, int)}).
+		 * 
+		 * @param other
+		 *            the map to compare with
+		 * @return true, if the tokens of both maps can be paired by their
+		 *         ordinals
+		 */
+		public boolean hasSameTokenization(AlignedTokensMap other) {
+			prepareSearchByStart();
+			other.prepareSearchByStart();
+			int size = tokens.size();
+			if ((size != other.tokens.size()) || (boundaryHash != other.boundaryHash) || (!ascendingStarts)) {
+				return false;
+			}
+			for (int ordinal = 0; ordinal < size; ordinal++) {
+				if ((tokenLeft[ordinal] != other.tokenLeft[ordinal]) || (tokenRight[ordinal] != other.tokenRight[ordinal])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * This method returns the ordinal of the given {@link SToken}, which
+		 * is its position in {@link #getTokens()}.
+		 * 
+		 * @param tok
+		 *            the {@link SToken} to search the ordinal for
+		 * @return the ordinal or -1, if the token is not contained
+		 */
+		public int getOrdinal(SToken tok) {
+			return tokens.getOrdinal(tok);
+		}
+
+		/**
+		 * This method returns the {@link SToken} having the given ordinal.
+		 * 
+		 * @param ordinal
+		 *            the position of the token in {@link #getTokens()}
+		 * @return the {@link SToken}
+		 */
+		public SToken getToken(int ordinal) {
+			return tokens.get(ordinal);
 		}
 
 		/**
@@ -103,8 +310,9 @@ public class TokenMergeContainer {
 		 * @return the length or -1 on failure
 		 */
 		public int getLength(SToken tok) {
-			if (this.tokenLeftMap.containsKey(tok) && this.tokenRightMap.containsKey(tok)) {
-				return this.tokenRightMap.get(tok) - this.tokenLeftMap.get(tok);
+			int ordinal = tokens.getOrdinal(tok);
+			if (ordinal != -1) {
+				return tokenRight[ordinal] - tokenLeft[ordinal];
 			} else {
 				return -1;
 			}
@@ -119,8 +327,9 @@ public class TokenMergeContainer {
 		 * @return the start index or -1 on failure
 		 */
 		public int getStart(SToken tok) {
-			if (this.tokenLeftMap.containsKey(tok)) {
-				return this.tokenLeftMap.get(tok);
+			int ordinal = tokens.getOrdinal(tok);
+			if (ordinal != -1) {
+				return tokenLeft[ordinal];
 			} else {
 				return (-1);
 			}
@@ -136,8 +345,9 @@ public class TokenMergeContainer {
 		 * @return the end index or -1 on failure
 		 */
 		public int getEnd(SToken tok) {
-			if (this.tokenRightMap.containsKey(tok)) {
-				return this.tokenRightMap.get(tok);
+			int ordinal = tokens.getOrdinal(tok);
+			if (ordinal != -1) {
+				return tokenRight[ordinal];
 			} else {
 				throw new PepperModuleException("Cannot find token '" + tok.getId() + "' in token right map");
 			}
@@ -175,6 +385,14 @@ public class TokenMergeContainer {
 	 **/
 	private Map<SToken, Map<STextualDS, SToken>> equivalentToken = null;
 
+	/**
+	 * Maps an other {@link STextualDS} to the base {@link STextualDS} having
+	 * the same normalized text and tokenization. The equivalences of their
+	 * tokens are not contained in {@link #equivalentToken}, they are paired
+	 * by their position.
+	 **/
+	private Map<STextualDS, STextualDS> identicallyTokenizedTexts = null;
+
 	/**
 	 * The map of aligned texts which is a map with the {@link STextualDS}
 	 * objects as keys and the {@link AlignedTokensMap} as value.
@@ -184,16 +402,31 @@ public class TokenMergeContainer {
 	/** maps an original text to its normalized representation **/
 	private Map<STextualDS, String> normalizedTexts = null;
 
+	/**
+	 * maps an original text to its lower cased normalized representation,
+	 * which is used for aligning texts
+	 **/
+	private Map<STextualDS, String> lowerCaseNormalizedTexts = null;
+
+	/**
+	 * maps an original text to the fingerprint of its lower cased normalized
+	 * representation
+	 **/
+	private Map<STextualDS, TextFingerprint> fingerprints = null;
+
 	/**
 	 * This map contains a mapping from normalized index of a character to the
 	 * index in the original text for every base {@link STextualDS} objects.
 	 **/
-	private Map<STextualDS, List<Integer>> normalizedBaseTextToOriginalBaseText = null;
+	private Map<STextualDS, int[]> normalizedBaseTextToOriginalBaseText = null;
 
 	public TokenMergeContainer() {
 		this.equivalentToken = new HashMap<>();
+		this.identicallyTokenizedTexts = new HashMap<>();
 		this.alignedTextsMap = new HashMap<>();
 		this.normalizedTexts = new HashMap<>();
+		this.lowerCaseNormalizedTexts = new HashMap<>();
+		this.fingerprints = new HashMap<>();
 		this.normalizedBaseTextToOriginalBaseText = new HashMap<>();
 	}
 
@@ -204,9 +437,9 @@ public class TokenMergeContainer {
 	 * @param sTextualDS
 	 *            The {@link STextualDS} object
 	 * @param posMapping
-	 *            The mapping list
+	 *            The mapping array
 	 */
-	public void setBaseTextPositionByNormalizedTextPosition(STextualDS sTextualDS, List<Integer> posMapping) {
+	public void setBaseTextPositionByNormalizedTextPosition(STextualDS sTextualDS, int[] posMapping) {
 		if (!this.normalizedBaseTextToOriginalBaseText.containsKey(sTextualDS)) {
 			this.normalizedBaseTextToOriginalBaseText.put(sTextualDS, posMapping);
 		}
@@ -225,11 +458,12 @@ public class TokenMergeContainer {
 	 */
 	public int getBaseTextPositionByNormalizedTextPosition(STextualDS sTextualDS, int position) {
 		int baseTextPosition = -1;
-		if (normalizedBaseTextToOriginalBaseText.containsKey(sTextualDS)) {
-			if (normalizedBaseTextToOriginalBaseText.get(sTextualDS).size() > position) {
-				baseTextPosition = this.normalizedBaseTextToOriginalBaseText.get(sTextualDS).get(position);
+		int[] posMapping = normalizedBaseTextToOriginalBaseText.get(sTextualDS);
+		if (posMapping != null) {
+			if (posMapping.length > position) {
+				baseTextPosition = posMapping[position];
 			} else {
-				throw new PepperModuleException("Given position of character in the normalized text '" + position + "' was bigger than the size of the normalized text '" + normalizedBaseTextToOriginalBaseText.get(sTextualDS).size() + "'.");
+				throw new PepperModuleException("Given position of character in the normalized text '" + position + "' was bigger than the size of the normalized text '" + posMapping.length + "'.");
 			}
 		}
 		return baseTextPosition;
@@ -261,6 +495,8 @@ public class TokenMergeContainer {
 			}
 		}
 		this.normalizedTexts.put(sTextualDS, normalizedText);
+		this.lowerCaseNormalizedTexts.remove(sTextualDS);
+		this.fingerprints.remove(sTextualDS);
 	}
 
 	/**
@@ -276,6 +512,55 @@ public class TokenMergeContainer {
 		return this.normalizedTexts.get(sTextualDS);
 	}
 
+	/**
+	 * This method returns the lower cased normalized text for the given
+	 * {@link STextualDS}. The lower cased text is computed only once per
+	 * {@link STextualDS}.
+	 * 
+	 * @param sTextualDS
+	 *            The {@link STextualDS} to search the normalized text for.
+	 * @return The lower cased normalized text or null, if there is no
+	 *         normalized text for the given {@link STextualDS}
+	 */
+	public String getLowerCaseNormalizedText(STextualDS sTextualDS) {
+		String lowerCaseText = this.lowerCaseNormalizedTexts.get(sTextualDS);
+		if (lowerCaseText == null) {
+			String normalizedText = getNormalizedText(sTextualDS);
+			if (normalizedText != null) {
+				lowerCaseText = normalizedText.toLowerCase();
+				this.lowerCaseNormalizedTexts.put(sTextualDS, lowerCaseText);
+			}
+		}
+		return lowerCaseText;
+	}
+
+	/**
+	 * This method sets the fingerprint of the lower cased normalized text of
+	 * the given {@link STextualDS}. It has to be set after the normalized text
+	 * was added, since adding a normalized text removes the fingerprint.
+	 * 
+	 * @param sTextualDS
+	 *            The {@link STextualDS} the fingerprint belongs to
+	 * @param fingerprint
+	 *            The fingerprint of its lower cased normalized text
+	 */
+	public void setFingerprint(STextualDS sTextualDS, TextFingerprint fingerprint) {
+		this.fingerprints.put(sTextualDS, fingerprint);
+	}
+
+	/**
+	 * This method returns the fingerprint of the lower cased normalized text
+	 * of the given {@link STextualDS}.
+	 * 
+	 * @param sTextualDS
+	 *            The {@link STextualDS} to search the fingerprint for.
+	 * @return The fingerprint or null, if there is no fingerprint for the
+	 *         given {@link STextualDS}
+	 */
+	public TextFingerprint getFingerprint(STextualDS sTextualDS) {
+		return this.fingerprints.get(sTextualDS);
+	}
+
 	/**
 	 * This method returns the {@link SToken} object which is located in the
 	 * given normalized {@link STextualDS} at the given start position.
@@ -447,11 +732,57 @@ public class TokenMergeContainer {
 			// / get the equivalent token of the other document if there is one
 			equivalentToken = this.equivalentToken.get(baseTextToken).get(otherSText);
 		}
+		if (equivalentToken == null) {
+			STextualDS baseText = this.identicallyTokenizedTexts.get(otherSText);
+			if (baseText != null) {
+				// the equivalent has the same position in the other text
+				AlignedTokensMap baseTokens = this.alignedTextsMap.get(baseText);
+				AlignedTokensMap otherTokens = this.alignedTextsMap.get(otherSText);
+				int ordinal = (baseTokens == null) ? -1 : baseTokens.getOrdinal(baseTextToken);
+				if ((ordinal != -1) && (otherTokens != null)) {
+					equivalentToken = otherTokens.getToken(ordinal);
+				}
+			}
+		}
 		return equivalentToken;
 	}
 
+	/**
+	 * This method records that the given other {@link STextualDS} has the
+	 * same normalized text and the same tokenization as the given base
+	 * {@link STextualDS}, see
+	 * {@link AlignedTokensMap#hasSameTokenization(AlignedTokensMap)}. Each
+	 * token of the base text is equivalent to the token of the other text
+	 * having the same position, which is resolved by
+	 * {@link #getTokenMapping(SToken, STextualDS)} without adding a mapping
+	 * per token.
+	 * 
+	 * @param baseText
+	 *            The base {@link STextualDS}
+	 * @param otherText
+	 *            The other {@link STextualDS}
+	 */
+	public void addIdenticalTokenization(STextualDS baseText, STextualDS otherText) {
+		this.identicallyTokenizedTexts.put(otherText, baseText);
+	}
+
+	/**
+	 * This method returns the base {@link STextualDS} the given other
+	 * {@link STextualDS} has the same normalized text and tokenization as.
+	 * 
+	 * @param otherText
+	 *            The other {@link STextualDS}
+	 * @return The base {@link STextualDS} or null, if no identical
+	 *         tokenization was recorded for the other text
+	 */
+	public STextualDS getIdenticallyTokenizedBaseText(STextualDS otherText) {
+		return this.identicallyTokenizedTexts.get(otherText);
+	}
+
 	/**
 	 * This method returns the map of equivalences for the base text tokens.
+	 * The equivalences of identically tokenized texts are not contained, see
+	 * {@link #addIdenticalTokenization(STextualDS, STextualDS)}.
 	 * 
 	 * @return The equivalence map.
 	 */
@@ -459,6 +790,81 @@ public class TokenMergeContainer {
 		return this.equivalentToken;
 	}
 
+	/**
+	 * Creates a new {@link TokenMergeContainer} containing the normalized
+	 * texts, the aligned tokens and the position mappings of all texts of the
+	 * passed document. The data is shared with this container and must not be
+	 * modified while the snapshot is in use. A snapshot of the base document
+	 * allows to normalize and align other documents in parallel, each in its
+	 * own container.
+	 * 
+	 * @param document
+	 *            the document whose texts are contained in the snapshot
+	 * @return the snapshot
+	 */
+	public TokenMergeContainer createSnapshot(SDocument document) {
+		TokenMergeContainer snapshot = new TokenMergeContainer();
+		snapshot.setBaseDocument(getBaseDocument());
+		for (STextualDS text : document.getDocumentGraph().getTextualDSs()) {
+			AlignedTokensMap alignedTokens = alignedTextsMap.get(text);
+			if (alignedTokens != null) {
+				alignedTokens.prepareSearchByStart();
+				snapshot.alignedTextsMap.put(text, alignedTokens);
+			}
+			String normalizedText = getNormalizedText(text);
+			if (normalizedText != null) {
+				snapshot.normalizedTexts.put(text, normalizedText);
+				snapshot.lowerCaseNormalizedTexts.put(text, getLowerCaseNormalizedText(text));
+			}
+			TextFingerprint fingerprint = getFingerprint(text);
+			if (fingerprint != null) {
+				snapshot.fingerprints.put(text, fingerprint);
+			}
+			int[] posMapping = normalizedBaseTextToOriginalBaseText.get(text);
+			if (posMapping != null) {
+				snapshot.normalizedBaseTextToOriginalBaseText.put(text, posMapping);
+			}
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Takes over the normalized texts and aligned tokens of all texts of the
+	 * passed document and all token mappings from the passed container, as if
+	 * they were computed by this container.
+	 * 
+	 * @param source
+	 *            the container in which the document was normalized and
+	 *            aligned
+	 * @param document
+	 *            the document whose texts are taken over
+	 */
+	public void importDocument(TokenMergeContainer source, SDocument document) {
+		for (STextualDS text : document.getDocumentGraph().getTextualDSs()) {
+			AlignedTokensMap alignedTokens = source.alignedTextsMap.get(text);
+			if (alignedTokens != null) {
+				alignedTextsMap.put(text, alignedTokens);
+			}
+			String normalizedText = source.getNormalizedText(text);
+			if (normalizedText != null) {
+				addNormalizedText(document, text, normalizedText);
+			}
+			TextFingerprint fingerprint = source.getFingerprint(text);
+			if (fingerprint != null) {
+				setFingerprint(text, fingerprint);
+			}
+			STextualDS baseText = source.getIdenticallyTokenizedBaseText(text);
+			if (baseText != null) {
+				addIdenticalTokenization(baseText, text);
+			}
+		}
+		for (Map.Entry<SToken, Map<STextualDS, SToken>> entry : source.equivalentToken.entrySet()) {
+			for (Map.Entry<STextualDS, SToken> mapping : entry.getValue().entrySet()) {
+				addTokenMapping(entry.getKey(), mapping.getValue(), mapping.getKey());
+			}
+		}
+	}
+
 	/**
 	 * This method frees the memory used by the specified {@SDocument
 	 * 
@@ -477,10 +883,13 @@ public class TokenMergeContainer {
 				for (STextualDS text : document.getDocumentGraph().getTextualDSs()) {
 					alignedTextsMap.remove(text);
 					normalizedTexts.remove(text);
+					lowerCaseNormalizedTexts.remove(text);
+					fingerprints.remove(text);
 					normalizedBaseTextToOriginalBaseText.remove(text);
 				}
 			}
 			this.equivalentToken = new HashMap<>();
+			this.identicallyTokenizedTexts = new HashMap<>();
 		}
 	}
 }
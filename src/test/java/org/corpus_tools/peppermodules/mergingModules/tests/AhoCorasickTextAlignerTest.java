@@ -0,0 +1,113 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.corpus_tools.peppermodules.mergingModules.AhoCorasickTextAligner;
+import org.corpus_tools.peppermodules.mergingModules.IndexOfTextAligner;
+import org.corpus_tools.peppermodules.mergingModules.MergerProperties;
+import org.corpus_tools.peppermodules.mergingModules.TextNormalizer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AhoCorasickTextAlignerTest {
+
+	private AhoCorasickTextAligner fixture = null;
+
+	public AhoCorasickTextAligner getFixture() {
+		return fixture;
+	}
+
+	public void setFixture(AhoCorasickTextAligner fixture) {
+		this.fixture = fixture;
+	}
+
+	private TextNormalizer normalizer = null;
+
+	@Before
+	public void setUp() {
+		setFixture(new AhoCorasickTextAligner());
+		normalizer = new MergerProperties().getTextNormalizer();
+	}
+
+	@Test
+	public void testIndexOf() {
+		assertEquals(-1, getFixture().indexOf("This,isasmallExample!", "Thisisno", normalizer));
+		assertEquals(0, getFixture().indexOf("This,isasmallExample!", "This;is", normalizer));
+		assertEquals(13, getFixture().indexOf("Thisisnosmallexample.Itisasmallerexample!", "exampleItis", normalizer));
+		assertEquals(13, getFixture().indexOf("Thisisnosmallexample.Itisasmallerexample!", ".exampleItis", normalizer));
+		assertEquals(-1, getFixture().indexOf("Thisisnosmallexampl.Itisasmallerexampl", "example", normalizer));
+		assertEquals(7, getFixture().indexOf("aabaab.aabaaab", "aabaaab", normalizer));
+	}
+
+	/**
+	 * Searches several strings at once, including duplicates, a string being
+	 * the suffix of another one and a string consisting of punctuations only.
+	 */
+	@Test
+	public void testIndexOf_multiplePatterns() {
+		List<String> stringsToSearchFor = Arrays.asList("exampleItis", "small", "Thisisno", "example", "example", "le", "..");
+		int[] expected = { 13, 8, 0, 13, 13, 12, 0 };
+		assertArrayEquals(expected, getFixture().indexOf("Thisisnosmallexample.Itisasmallerexample!", stringsToSearchFor, normalizer));
+	}
+
+	/**
+	 * Checks that the results are equal to the ones of
+	 * {@link IndexOfTextAligner} for random texts over a small alphabet
+	 * containing punctuations, when all strings are searched at once.
+	 */
+	@Test
+	public void testIndexOf_sameAsIndexOfTextAligner() {
+		IndexOfTextAligner template = new IndexOfTextAligner();
+		Random random = new Random(42);
+		char[] alphabet = { 'a', 'b', '.', ',' };
+		for (int i = 0; i < 1000; i++) {
+			String stringToSearchIn = randomString(random, alphabet, 1 + random.nextInt(40));
+			if (stringToSearchIn.replaceAll("[.,]", "").isEmpty()) {
+				continue;
+			}
+			List<String> stringsToSearchFor = new ArrayList<>();
+			int numOfStrings = 1 + random.nextInt(5);
+			while (stringsToSearchFor.size() < numOfStrings) {
+				String stringToSearchFor = randomString(random, alphabet, 1 + random.nextInt(6));
+				if (!stringToSearchFor.replaceAll("[.,]", "").isEmpty()) {
+					stringsToSearchFor.add(stringToSearchFor);
+				}
+			}
+			int[] found = getFixture().indexOf(stringToSearchIn, stringsToSearchFor, normalizer);
+			for (int j = 0; j < numOfStrings; j++) {
+				assertEquals("search '" + stringsToSearchFor.get(j) + "' in '" + stringToSearchIn + "'", template.indexOf(stringToSearchIn, stringsToSearchFor.get(j), normalizer), found[j]);
+			}
+		}
+	}
+
+	private static String randomString(Random random, char[] alphabet, int length) {
+		StringBuilder str = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			str.append(alphabet[random.nextInt(alphabet.length)]);
+		}
+		return str.toString();
+	}
+}
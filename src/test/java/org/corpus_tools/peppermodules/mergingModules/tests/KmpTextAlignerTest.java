@@ -0,0 +1,88 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.corpus_tools.peppermodules.mergingModules.IndexOfTextAligner;
+import org.corpus_tools.peppermodules.mergingModules.KmpTextAligner;
+import org.corpus_tools.peppermodules.mergingModules.MergerProperties;
+import org.corpus_tools.peppermodules.mergingModules.TextNormalizer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KmpTextAlignerTest {
+
+	private KmpTextAligner fixture = null;
+
+	public KmpTextAligner getFixture() {
+		return fixture;
+	}
+
+	public void setFixture(KmpTextAligner fixture) {
+		this.fixture = fixture;
+	}
+
+	private TextNormalizer normalizer = null;
+
+	@Before
+	public void setUp() {
+		setFixture(new KmpTextAligner());
+		normalizer = new MergerProperties().getTextNormalizer();
+	}
+
+	@Test
+	public void testIndexOf() {
+		assertEquals(-1, getFixture().indexOf("This,isasmallExample!", "Thisisno", normalizer));
+		assertEquals(0, getFixture().indexOf("This,isasmallExample!", "This;is", normalizer));
+		assertEquals(13, getFixture().indexOf("Thisisnosmallexample.Itisasmallerexample!", "exampleItis", normalizer));
+		assertEquals(13, getFixture().indexOf("Thisisnosmallexample.Itisasmallerexample!", ".exampleItis", normalizer));
+		assertEquals(-1, getFixture().indexOf("Thisisnosmallexampl.Itisasmallerexampl", "example", normalizer));
+		assertEquals(7, getFixture().indexOf("aabaab.aabaaab", "aabaaab", normalizer));
+	}
+
+	/**
+	 * Checks that the results are equal to the ones of
+	 * {@link IndexOfTextAligner} for random texts over a small alphabet
+	 * containing punctuations.
+	 */
+	@Test
+	public void testIndexOf_sameAsIndexOfTextAligner() {
+		IndexOfTextAligner template = new IndexOfTextAligner();
+		Random random = new Random(42);
+		char[] alphabet = { 'a', 'b', '.', ',' };
+		for (int i = 0; i < 1000; i++) {
+			String stringToSearchIn = randomString(random, alphabet, 1 + random.nextInt(40));
+			String stringToSearchFor = randomString(random, alphabet, 1 + random.nextInt(6));
+			if (stringToSearchFor.replaceAll("[.,]", "").isEmpty() || stringToSearchIn.replaceAll("[.,]", "").isEmpty()) {
+				continue;
+			}
+			assertEquals("search '" + stringToSearchFor + "' in '" + stringToSearchIn + "'", template.indexOf(stringToSearchIn, stringToSearchFor, normalizer), getFixture().indexOf(stringToSearchIn, stringToSearchFor, normalizer));
+		}
+	}
+
+	private static String randomString(Random random, char[] alphabet, int length) {
+		StringBuilder str = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			str.append(alphabet[random.nextInt(alphabet.length)]);
+		}
+		return str.toString();
+	}
+}
@@ -17,18 +17,20 @@
  */
 package org.corpus_tools.peppermodules.mergingModules.tests;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
-import java.util.Vector;
 
 import org.corpus_tools.pepper.modules.MappingSubject;
 import org.corpus_tools.pepper.modules.PepperModuleProperty;
 import org.corpus_tools.peppermodules.mergingModules.MergerMapper;
 import org.corpus_tools.peppermodules.mergingModules.MergerProperties;
+import org.corpus_tools.peppermodules.mergingModules.TextAlignment;
 import org.corpus_tools.salt.SaltFactory;
 import org.corpus_tools.salt.common.SCorpusGraph;
 import org.corpus_tools.salt.common.SDocument;
@@ -140,21 +142,12 @@ public class MergerMapper_baseTest extends MergerMapper {
 		doc1.getDocumentGraph().createTextualDS(origText);
 		this.normalizePrimaryTexts(doc1);
 
-		List<Integer> template = new Vector<Integer>();
-
 		/**
 		 * Example2: dipl: " thäs is" 01234567 norm: "thaesis" 0123456 0->1 1->2
 		 * 2->3 3->3 4->4 5->6 6->7
 		 */
-		template.add(1);
-		template.add(2);
-		template.add(3);
-		template.add(3);
-		template.add(4);
-		template.add(6);
-		template.add(7);
-		template.add(8);
-		assertEquals(template, this.createBaseTextNormOriginalMapping(doc1.getDocumentGraph().getTextualDSs().get(0)));
+		int[] template = { 1, 2, 3, 3, 4, 6, 7, 8 };
+		assertArrayEquals(template, this.createBaseTextNormOriginalMapping(doc1.getDocumentGraph().getTextualDSs().get(0)));
 	}
 
 	/**
@@ -404,6 +397,88 @@ public class MergerMapper_baseTest extends MergerMapper {
 		assertEquals(12, doc1.getDocumentGraph().getTextualRelations().size());
 	}
 
+	/**
+	 * Tests the alignment of two texts having the same normalized text and
+	 * tokenization, which only differ in their whitespaces. The tokens are
+	 * paired by their position and the annotations are moved to the tokens of
+	 * the base text without creating new tokens.
+	 */
+	@Test
+	public void testAlignTexts_identicalTokenization() {
+		SDocument sDoc1 = SaltFactory.createSDocument();
+		sDoc1.setId("doc1");
+		sDoc1.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		STextualDS baseText = sDoc1.getDocumentGraph().createTextualDS("This is a test.");
+		sDoc1.getDocumentGraph().createToken(baseText, 0, 4);
+		sDoc1.getDocumentGraph().createToken(baseText, 5, 7);
+		sDoc1.getDocumentGraph().createToken(baseText, 8, 9);
+		sDoc1.getDocumentGraph().createToken(baseText, 10, 14);
+		sDoc1.getDocumentGraph().createToken(baseText, 14, 15);
+
+		SDocument sDoc2 = SaltFactory.createSDocument();
+		sDoc2.setId("doc2");
+		sDoc2.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		STextualDS otherText = sDoc2.getDocumentGraph().createTextualDS("This  is a test.");
+		sDoc2.getDocumentGraph().createToken(otherText, 0, 4).createAnnotation(null, "pos", "DT");
+		sDoc2.getDocumentGraph().createToken(otherText, 6, 8).createAnnotation(null, "pos", "VBZ");
+		sDoc2.getDocumentGraph().createToken(otherText, 9, 10).createAnnotation(null, "pos", "DT");
+		sDoc2.getDocumentGraph().createToken(otherText, 11, 15).createAnnotation(null, "pos", "NN");
+		sDoc2.getDocumentGraph().createToken(otherText, 15, 16).createAnnotation(null, "pos", ".");
+
+		this.normalizePrimaryTexts(sDoc1);
+		this.normalizePrimaryTexts(sDoc2);
+
+		TextAlignment alignment = this.computeAlignment(baseText, otherText);
+		assertTrue(alignment.isIdenticalTokenization());
+		assertEquals(0, alignment.getOffset());
+
+		Hashtable<SNode, SNode> equivalenceMap = new Hashtable<SNode, SNode>();
+		assertTrue(this.alignTexts(alignment, new HashSet<SToken>(), equivalenceMap));
+		List<SToken> baseTokens = sDoc1.getDocumentGraph().getSortedTokenByText();
+		List<SToken> otherTokens = sDoc2.getDocumentGraph().getSortedTokenByText();
+		for (int i = 0; i < baseTokens.size(); i++) {
+			assertEquals(otherTokens.get(i), this.container.getTokenMapping(baseTokens.get(i), otherText));
+			assertEquals(baseTokens.get(i), equivalenceMap.get(otherTokens.get(i)));
+		}
+
+		this.mergeTokens(alignment, equivalenceMap);
+		assertEquals(5, sDoc1.getDocumentGraph().getTokens().size());
+		assertEquals("VBZ", baseTokens.get(1).getAnnotation("pos").getValue());
+		assertEquals(".", baseTokens.get(4).getAnnotation("pos").getValue());
+	}
+
+	/**
+	 * Tests the alignment of two texts having the same normalized text, but a
+	 * different tokenization. The tokens must not be paired by their position.
+	 */
+	@Test
+	public void testAlignTexts_differentTokenization() {
+		SDocument sDoc1 = SaltFactory.createSDocument();
+		sDoc1.setId("doc1");
+		sDoc1.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		STextualDS baseText = sDoc1.getDocumentGraph().createTextualDS("This is a test.");
+		SToken this1 = sDoc1.getDocumentGraph().createToken(baseText, 0, 4);
+		sDoc1.getDocumentGraph().createToken(baseText, 5, 15);
+
+		SDocument sDoc2 = SaltFactory.createSDocument();
+		sDoc2.setId("doc2");
+		sDoc2.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		STextualDS otherText = sDoc2.getDocumentGraph().createTextualDS("This is a test.");
+		SToken this2 = sDoc2.getDocumentGraph().createToken(otherText, 0, 4);
+		sDoc2.getDocumentGraph().createToken(otherText, 5, 14);
+
+		this.normalizePrimaryTexts(sDoc1);
+		this.normalizePrimaryTexts(sDoc2);
+
+		TextAlignment alignment = this.computeAlignment(baseText, otherText);
+		assertFalse(alignment.isIdenticalTokenization());
+
+		Hashtable<SNode, SNode> equivalenceMap = new Hashtable<SNode, SNode>();
+		assertTrue(this.alignTexts(alignment, new HashSet<SToken>(), equivalenceMap));
+		assertEquals(1, equivalenceMap.size());
+		assertEquals(this1, equivalenceMap.get(this2));
+	}
+
 	/**
 	 * Checks, that algorithm chooses the expected base document automatically.
 	 * Should be the one having the most nodes and relations (in sum).
@@ -19,28 +19,45 @@ package org.corpus_tools.peppermodules.mergingModules.tests;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.corpus_tools.pepper.common.DOCUMENT_STATUS;
+import org.corpus_tools.pepper.core.DocumentControllerImpl;
+import org.corpus_tools.pepper.impl.PepperMapperControllerImpl;
+import org.corpus_tools.pepper.modules.DocumentController;
 import org.corpus_tools.pepper.modules.MappingSubject;
 import org.corpus_tools.pepper.modules.PepperModuleProperty;
+import org.corpus_tools.pepper.modules.exceptions.PepperModuleException;
+import org.corpus_tools.peppermodules.mergingModules.AhoCorasickTextAligner;
+import org.corpus_tools.peppermodules.mergingModules.KmpTextAligner;
 import org.corpus_tools.peppermodules.mergingModules.MergerMapper;
 import org.corpus_tools.peppermodules.mergingModules.MergerProperties;
+import org.corpus_tools.peppermodules.mergingModules.MultiPatternTextAligner;
+import org.corpus_tools.peppermodules.mergingModules.TextAligner;
+import org.corpus_tools.peppermodules.mergingModules.TextNormalizer;
 import org.corpus_tools.salt.SaltFactory;
 import org.corpus_tools.salt.common.SCorpusGraph;
 import org.corpus_tools.salt.common.SDocument;
 import org.corpus_tools.salt.common.SDocumentGraph;
+import org.corpus_tools.salt.common.SPointingRelation;
 import org.corpus_tools.salt.common.SSpan;
 import org.corpus_tools.salt.common.SSpanningRelation;
 import org.corpus_tools.salt.common.SStructure;
 import org.corpus_tools.salt.common.SStructuredNode;
 import org.corpus_tools.salt.common.STextualDS;
+import org.corpus_tools.salt.common.STextualRelation;
 import org.corpus_tools.salt.common.SToken;
 import org.corpus_tools.salt.core.SLayer;
 import org.corpus_tools.salt.core.SNode;
@@ -244,6 +261,262 @@ public class MergerMapper_graphTest extends MergerMapper {
 		assertEquals(diffs + "", 0, diffs.size());
 	}
 
+	/**
+	 * Tests that a span of the other document is merged with the span in the
+	 * base document having exactly the same tokens, even if a span covering
+	 * more tokens was created before.
+	 */
+	@Test
+	public void testMergeSpans_exactChildren() {
+		SDocument fixture = SaltFactory.createSDocument();
+		fixture.setId("sdoc1");
+		fixture.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		MappingSubject sub1 = new MappingSubject();
+		sub1.setIdentifier(fixture.getIdentifier());
+		getFixture().getMappingSubjects().add(sub1);
+		SampleGenerator.createPrimaryData(fixture);
+		SampleGenerator.createTokens(fixture);
+		List<SToken> baseTokens = fixture.getDocumentGraph().getSortedTokenByText();
+		SSpan superSpan = fixture.getDocumentGraph().createSpan(baseTokens.get(0), baseTokens.get(1), baseTokens.get(2));
+		SSpan exactSpan = fixture.getDocumentGraph().createSpan(baseTokens.get(0), baseTokens.get(1));
+
+		SDocument other = SaltFactory.createSDocument();
+		other.setId("sdoc2");
+		other.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		MappingSubject sub2 = new MappingSubject();
+		sub2.setIdentifier(other.getIdentifier());
+		getFixture().getMappingSubjects().add(sub2);
+		SampleGenerator.createPrimaryData(other);
+		SampleGenerator.createTokens(other);
+		List<SToken> otherTokens = other.getDocumentGraph().getSortedTokenByText();
+		SSpan otherSpan = other.getDocumentGraph().createSpan(otherTokens.get(0), otherTokens.get(1));
+		otherSpan.createAnnotation(null, "Inf-Struct", "topic");
+
+		this.isTestMode = true;
+		this.mergeDocumentStructures(chooseBaseDocument());
+
+		assertEquals(fixture, container.getBaseDocument());
+		assertEquals(2, fixture.getDocumentGraph().getSpans().size());
+		assertNotNull(exactSpan.getAnnotation("Inf-Struct"));
+		assertEquals(null, superSpan.getAnnotation("Inf-Struct"));
+	}
+
+	/**
+	 * Tests merging a very deep tree of structures, which must not depend on
+	 * the depth of the stack.
+	 */
+	@Test
+	public void testMergeDeepStructure() {
+		int depth = 10000;
+		SDocument fixture = SaltFactory.createSDocument();
+		fixture.setId("sdoc1");
+		fixture.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		MappingSubject sub1 = new MappingSubject();
+		sub1.setIdentifier(fixture.getIdentifier());
+		getFixture().getMappingSubjects().add(sub1);
+		SampleGenerator.createPrimaryData(fixture);
+		SampleGenerator.createTokens(fixture);
+		// makes fixture the largest document and therefore the base document
+		SToken firstToken = fixture.getDocumentGraph().getSortedTokenByText().get(0);
+		for (int i = 0; i < 2 * depth; i++) {
+			fixture.getDocumentGraph().createSpan(firstToken);
+		}
+
+		SDocument other = SaltFactory.createSDocument();
+		other.setId("sdoc2");
+		other.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		MappingSubject sub2 = new MappingSubject();
+		sub2.setIdentifier(other.getIdentifier());
+		getFixture().getMappingSubjects().add(sub2);
+		SampleGenerator.createPrimaryData(other);
+		SampleGenerator.createTokens(other);
+		List<SToken> otherTokens = other.getDocumentGraph().getSortedTokenByText();
+		SStructure structure = other.getDocumentGraph().createStructure(otherTokens.get(0), otherTokens.get(1));
+		for (int i = 1; i < depth; i++) {
+			structure = other.getDocumentGraph().createStructure(structure);
+		}
+		structure.createAnnotation(null, "cat", "ROOT");
+
+		this.isTestMode = true;
+		this.mergeDocumentStructures(chooseBaseDocument());
+
+		assertEquals(fixture, getBaseDocument());
+		assertEquals(depth, fixture.getDocumentGraph().getStructures().size());
+		// the lowest structure dominates two tokens
+		assertEquals(depth + 1, fixture.getDocumentGraph().getDominanceRelations().size());
+		int numberOfRoots = 0;
+		for (SStructure baseStructure : fixture.getDocumentGraph().getStructures()) {
+			if (baseStructure.getAnnotation("cat") != null) {
+				assertEquals("ROOT", baseStructure.getAnnotation("cat").getValue());
+				assertEquals(0, baseStructure.getInRelations().size());
+				numberOfRoots++;
+			}
+		}
+		assertEquals(1, numberOfRoots);
+	}
+
+	/**
+	 * Tests merging a level of spans, which is large enough to be matched in
+	 * parallel. Some of the spans have an equivalent in the base document,
+	 * the others are created by the first span covering the same tokens and
+	 * are merged with the following ones.
+	 */
+	@Test
+	public void testMergeManySpans() {
+		int numberOfSpans = 3000;
+		SDocument fixture = SaltFactory.createSDocument();
+		fixture.setId("sdoc1");
+		fixture.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		MappingSubject sub1 = new MappingSubject();
+		sub1.setIdentifier(fixture.getIdentifier());
+		getFixture().getMappingSubjects().add(sub1);
+		SampleGenerator.createPrimaryData(fixture);
+		SampleGenerator.createTokens(fixture);
+		List<SToken> baseTokens = fixture.getDocumentGraph().getSortedTokenByText();
+		// makes fixture the largest document and therefore the base document
+		for (int i = 0; i < 2 * numberOfSpans; i++) {
+			fixture.getDocumentGraph().createSpan(baseTokens.get(0));
+		}
+		List<SSpan> existingSpans = new ArrayList<>();
+		for (int i = 1; i < baseTokens.size(); i++) {
+			existingSpans.add(fixture.getDocumentGraph().createSpan(baseTokens.get(0), baseTokens.get(i)));
+		}
+
+		SDocument other = SaltFactory.createSDocument();
+		other.setId("sdoc2");
+		other.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		MappingSubject sub2 = new MappingSubject();
+		sub2.setIdentifier(other.getIdentifier());
+		getFixture().getMappingSubjects().add(sub2);
+		SampleGenerator.createPrimaryData(other);
+		SampleGenerator.createTokens(other);
+		List<SToken> otherTokens = other.getDocumentGraph().getSortedTokenByText();
+		for (int i = 0; i < numberOfSpans; i++) {
+			// spans covering the first token and one other or two other tokens
+			int first = i % otherTokens.size();
+			int second = (first + 1 + (i / otherTokens.size()) % (otherTokens.size() - 1)) % otherTokens.size();
+			SSpan otherSpan = other.getDocumentGraph().createSpan(otherTokens.get(first), otherTokens.get(second));
+			otherSpan.createAnnotation(null, "anno" + i, "value");
+		}
+
+		this.isTestMode = true;
+		this.mergeDocumentStructures(chooseBaseDocument());
+
+		assertEquals(fixture, getBaseDocument());
+		int n = baseTokens.size();
+		// one span for each unordered pair of tokens
+		assertEquals(2 * numberOfSpans + n * (n - 1) / 2, fixture.getDocumentGraph().getSpans().size());
+		int numberOfAnnotations = 0;
+		for (SSpan span : fixture.getDocumentGraph().getSpans()) {
+			numberOfAnnotations += span.getAnnotations().size();
+		}
+		assertEquals(numberOfSpans, numberOfAnnotations);
+		for (SSpan existingSpan : existingSpans) {
+			assertTrue(existingSpan.getAnnotations().size() > 0);
+		}
+	}
+
+	/**
+	 * Same as {@link #testMergeManySpans()}, but the spans are matched in
+	 * parallel.
+	 */
+	@Test
+	public void testMergeManySpans_parallel() {
+		setMergeThreads(4);
+		testMergeManySpans();
+	}
+
+	/**
+	 * Tests merging a span, whose only token has no equivalent in the base
+	 * document and cannot be created, since it consists of a punctuation. The
+	 * span must be skipped, even if a span was merged before.
+	 */
+	@Test
+	public void testMergeSpanOverPunctuation() {
+		SDocument fixture = SaltFactory.createSDocument();
+		fixture.setId("sdoc1");
+		fixture.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		MappingSubject sub1 = new MappingSubject();
+		sub1.setIdentifier(fixture.getIdentifier());
+		getFixture().getMappingSubjects().add(sub1);
+		fixture.getDocumentGraph().createTextualDS("a sample text");
+		fixture.getDocumentGraph().tokenize();
+		// makes fixture the largest document and therefore the base document
+		for (SToken baseToken : fixture.getDocumentGraph().getTokens()) {
+			fixture.getDocumentGraph().createSpan(baseToken);
+		}
+
+		SDocument other = SaltFactory.createSDocument();
+		other.setId("sdoc2");
+		other.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		MappingSubject sub2 = new MappingSubject();
+		sub2.setIdentifier(other.getIdentifier());
+		getFixture().getMappingSubjects().add(sub2);
+		STextualDS otherText = other.getDocumentGraph().createTextualDS("a sample text.");
+		other.getDocumentGraph().createSpan(other.getDocumentGraph().createToken(otherText, 0, 1));
+		SToken punctuation = other.getDocumentGraph().createToken(otherText, 13, 14);
+		other.getDocumentGraph().createSpan(punctuation).createAnnotation(null, "Inf-Struct", "topic");
+
+		this.isTestMode = true;
+		this.mergeDocumentStructures(chooseBaseDocument());
+
+		assertEquals(fixture, getBaseDocument());
+		assertEquals(3, fixture.getDocumentGraph().getSpans().size());
+	}
+
+	/**
+	 * Tests that pointing relations are only copied into the base document,
+	 * when the base document does not already contain a pointing relation of
+	 * the same type between the equivalent nodes.
+	 */
+	@Test
+	public void testMergePointingRelations() {
+		SDocument fixture = SaltFactory.createSDocument();
+		fixture.setId("sdoc1");
+		fixture.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		MappingSubject sub1 = new MappingSubject();
+		sub1.setIdentifier(fixture.getIdentifier());
+		getFixture().getMappingSubjects().add(sub1);
+		SampleGenerator.createPrimaryData(fixture);
+		SampleGenerator.createTokens(fixture);
+		List<SToken> baseTokens = fixture.getDocumentGraph().getSortedTokenByText();
+		// makes fixture the largest document and therefore the base document
+		for (int i = 0; i < 10; i++) {
+			fixture.getDocumentGraph().createSpan(baseTokens.get(0));
+		}
+		SPointingRelation baseRel = SaltFactory.createSPointingRelation();
+		baseRel.setSource(baseTokens.get(0));
+		baseRel.setTarget(baseTokens.get(1));
+		baseRel.setType("anaphoric");
+		fixture.getDocumentGraph().addRelation(baseRel);
+
+		SDocument other = SaltFactory.createSDocument();
+		other.setId("sdoc2");
+		other.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		MappingSubject sub2 = new MappingSubject();
+		sub2.setIdentifier(other.getIdentifier());
+		getFixture().getMappingSubjects().add(sub2);
+		SampleGenerator.createPrimaryData(other);
+		SampleGenerator.createTokens(other);
+		List<SToken> otherTokens = other.getDocumentGraph().getSortedTokenByText();
+		String[][] otherRels = { { "0", "1", "anaphoric" }, { "0", "1", "cataphoric" }, { "1", "0", "anaphoric" }, { "2", "3", "anaphoric" }, { "2", "3", "anaphoric" } };
+		for (String[] otherRel : otherRels) {
+			SPointingRelation rel = SaltFactory.createSPointingRelation();
+			rel.setSource(otherTokens.get(Integer.valueOf(otherRel[0])));
+			rel.setTarget(otherTokens.get(Integer.valueOf(otherRel[1])));
+			rel.setType(otherRel[2]);
+			other.getDocumentGraph().addRelation(rel);
+		}
+
+		this.isTestMode = true;
+		this.mergeDocumentStructures(chooseBaseDocument());
+
+		assertEquals(fixture, getBaseDocument());
+		assertEquals(4, fixture.getDocumentGraph().getPointingRelations().size());
+		assertEquals(2, fixture.getDocumentGraph().getRelations(baseTokens.get(0).getId(), baseTokens.get(1).getId()).size());
+		assertEquals(1, fixture.getDocumentGraph().getRelations(baseTokens.get(2).getId(), baseTokens.get(3).getId()).size());
+	}
+
 	/**
 	 * Tests the document status after the mapping of three documents containing
 	 * the same primary data and same tokenization, but different annotation
@@ -707,6 +980,32 @@ public class MergerMapper_graphTest extends MergerMapper {
 		assertEquals(17, doc0.getDocumentGraph().getStructures().size());
 	}
 
+	/**
+	 * Same as {@link #testMerge_MultipleDocumentsWithMultipleTexts()}, but the
+	 * other documents are normalized and aligned in parallel.
+	 */
+	@Test
+	public void testMerge_MultipleDocumentsWithMultipleTexts_parallel() {
+		setMergeThreads(3);
+		testMerge_MultipleDocumentsWithMultipleTexts();
+	}
+
+	/**
+	 * Same as {@link #testMap3Documents_sameTokenization()}, but the other
+	 * documents are normalized and aligned in parallel.
+	 */
+	@Test
+	public void testMap3Documents_sameTokenization_parallel() {
+		setMergeThreads(2);
+		testMap3Documents_sameTokenization();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void setMergeThreads(int mergeThreads) {
+		PepperModuleProperty<Integer> prop = (PepperModuleProperty<Integer>) getProperties().getProperty(MergerProperties.PROP_MERGE_THREADS);
+		prop.setValue(mergeThreads);
+	}
+
 	@Test
 	public void testMovingNodes() throws Exception {
 		SDocument sDoc1 = SaltFactory.createSDocument();
@@ -789,4 +1088,362 @@ public class MergerMapper_graphTest extends MergerMapper {
 		assertNotNull(fixSLayer.getRelations());
 		assertEquals(3, fixSLayer.getRelations().size());
 	}
+
+	/**
+	 * Checks that the mapper does not refer to the other document of a merged
+	 * slot. The mapper is kept by its controller until the whole run ends, the
+	 * graph of the deleted other document must not stay reachable through it.
+	 */
+	@Test
+	public void testMapSDocument_releasesOtherDocument() throws IllegalAccessException {
+		SDocument base = SaltFactory.createSDocument();
+		base.setId("base");
+		base.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		SampleGenerator.createPrimaryData(base);
+		SampleGenerator.createTokens(base);
+		SampleGenerator.createSyntaxStructure(base);
+
+		SDocument other = SaltFactory.createSDocument();
+		other.setId("other");
+		other.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		SampleGenerator.createPrimaryData(other);
+		SampleGenerator.createTokens(other);
+		SampleGenerator.createMorphologyAnnotations(other);
+		SDocumentGraph otherGraph = other.getDocumentGraph();
+
+		MergerMapper mapper = new MergerMapper();
+		mapper.setProperties(new MergerProperties());
+		for (SDocument doc : new SDocument[] { base, other }) {
+			MappingSubject subj = new MappingSubject();
+			subj.setIdentifier(doc.getIdentifier());
+			mapper.getMappingSubjects().add(subj);
+		}
+		mapper.mapSDocument();
+
+		assertEquals(1, mapper.getMappingSubjects().size());
+		assertEquals(base, mapper.getMappingSubjects().get(0).getIdentifier().getIdentifiableElement());
+		assertNull(mapper.getContainer());
+		for (Field field : MergerMapper.class.getDeclaredFields()) {
+			if (Modifier.isStatic(field.getModifiers())) {
+				continue;
+			}
+			field.setAccessible(true);
+			Object value = field.get(mapper);
+			if ("node2NodeMap".equals(field.getName())) {
+				assertNull(value);
+			}
+			List<Object> referenced = new ArrayList<>();
+			referenced.add(value);
+			if (value instanceof Map) {
+				referenced.addAll(((Map<?, ?>) value).keySet());
+				referenced.addAll(((Map<?, ?>) value).values());
+			} else if (value instanceof Collection) {
+				referenced.addAll((Collection<?>) value);
+			}
+			for (Object obj : referenced) {
+				assertTrue(field.getName(), (obj != other) && (obj != otherGraph));
+				if (obj instanceof SNode) {
+					assertTrue(field.getName(), ((SNode) obj).getGraph() != otherGraph);
+				} else if (obj instanceof SRelation) {
+					assertTrue(field.getName(), ((SRelation) obj).getGraph() != otherGraph);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that the document graph of a document, for which the base corpus
+	 * structure only contains an empty document, is moved to the base
+	 * document without copying it.
+	 */
+	@Test
+	public void testMapSDocument_emptyBaseDocument() {
+		SCorpusGraph g1 = SaltFactory.createSCorpusGraph();
+		SDocument other = g1.createDocument(URI.createURI("/c1/d1"));
+		other.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		SampleGenerator.createPrimaryData(other);
+		SampleGenerator.createTokens(other);
+		SampleGenerator.createSyntaxStructure(other);
+		SampleGenerator.createMorphologyAnnotations(other);
+		SDocumentGraph otherGraph = other.getDocumentGraph();
+		int numOfNodes = otherGraph.getNodes().size();
+		int numOfRelations = otherGraph.getRelations().size();
+
+		// the empty document created by the merger
+		SCorpusGraph g2 = SaltFactory.createSCorpusGraph();
+		SDocument base = g2.createDocument(URI.createURI("/c1/d1"));
+		base.setDocumentGraph(SaltFactory.createSDocumentGraph());
+
+		MappingSubject otherSubj = new MappingSubject();
+		otherSubj.setIdentifier(other.getIdentifier());
+		getFixture().getMappingSubjects().add(otherSubj);
+		MappingSubject baseSubj = new MappingSubject();
+		baseSubj.setIdentifier(base.getIdentifier());
+		getFixture().getMappingSubjects().add(baseSubj);
+
+		getFixture().setBaseCorpusStructure(g2);
+		getFixture().mapSDocument();
+
+		assertEquals(DOCUMENT_STATUS.COMPLETED, baseSubj.getMappingResult());
+		assertEquals(DOCUMENT_STATUS.DELETED, otherSubj.getMappingResult());
+		assertTrue(otherGraph == base.getDocumentGraph());
+		assertTrue(base == otherGraph.getDocument());
+		assertNull(other.getDocumentGraph());
+		assertEquals(numOfNodes, base.getDocumentGraph().getNodes().size());
+		assertEquals(numOfRelations, base.getDocumentGraph().getRelations().size());
+	}
+
+	/**
+	 * Tests that the document graph of the first document is moved to an
+	 * empty base document and further documents are merged into it.
+	 */
+	@Test
+	public void testMapSDocument_emptyBaseDocumentAndTwoOthers() {
+		SCorpusGraph g1 = SaltFactory.createSCorpusGraph();
+		SDocument other1 = g1.createDocument(URI.createURI("/c1/d1"));
+		other1.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		SampleGenerator.createPrimaryData(other1);
+		SampleGenerator.createTokens(other1);
+		SampleGenerator.createSyntaxStructure(other1);
+		SDocumentGraph otherGraph = other1.getDocumentGraph();
+		int numOfNodes = otherGraph.getNodes().size();
+
+		SCorpusGraph g2 = SaltFactory.createSCorpusGraph();
+		SDocument other2 = g2.createDocument(URI.createURI("/c1/d1"));
+		other2.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		SampleGenerator.createPrimaryData(other2);
+		SampleGenerator.createTokens(other2);
+		SampleGenerator.createMorphologyAnnotations(other2);
+
+		// the empty document created by the merger
+		SCorpusGraph g3 = SaltFactory.createSCorpusGraph();
+		SDocument base = g3.createDocument(URI.createURI("/c1/d1"));
+		base.setDocumentGraph(SaltFactory.createSDocumentGraph());
+
+		for (SDocument doc : new SDocument[] { other1, other2, base }) {
+			MappingSubject subj = new MappingSubject();
+			subj.setIdentifier(doc.getIdentifier());
+			getFixture().getMappingSubjects().add(subj);
+		}
+		getFixture().setBaseCorpusStructure(g3);
+		getFixture().mapSDocument();
+
+		assertTrue(otherGraph == base.getDocumentGraph());
+		// the tokens of both documents are equal, no node was added
+		assertEquals(numOfNodes, base.getDocumentGraph().getNodes().size());
+		// the annotations of the second document were moved
+		for (SToken tok : base.getDocumentGraph().getTokens()) {
+			assertNotNull(tok.getAnnotation("salt::pos"));
+		}
+	}
+
+	/**
+	 * Tests that a base document, which has been sent to sleep and therefore
+	 * has no document graph, is woken up and merged instead of being replaced
+	 * by the document graph of the other document.
+	 */
+	@Test
+	public void testMapSDocument_sleepingBaseDocument() throws Exception {
+		SCorpusGraph g1 = SaltFactory.createSCorpusGraph();
+		SDocument other = g1.createDocument(URI.createURI("/c1/d1"));
+		other.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		other.getDocumentGraph().createTextualDS("sample text");
+		other.getDocumentGraph().tokenize();
+
+		SCorpusGraph g2 = SaltFactory.createSCorpusGraph();
+		SDocument base = g2.createDocument(URI.createURI("/c1/d1"));
+		base.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		base.getDocumentGraph().createTextualDS("base sample text");
+		base.getDocumentGraph().tokenize();
+		base.getDocumentGraph().getTokens().get(0).createAnnotation(null, "baseAnno", "x");
+
+		File tmpFile = File.createTempFile("mergerMapper_sleepingBase", ".salt");
+		tmpFile.deleteOnExit();
+		DocumentControllerImpl baseController = new DocumentControllerImpl(base);
+		baseController.setLocation(URI.createFileURI(tmpFile.getAbsolutePath()));
+		baseController.sendToSleep_FORCE();
+		assertTrue(baseController.isAsleep());
+		assertNull(base.getDocumentGraph());
+
+		MappingSubject otherSubj = new MappingSubject();
+		otherSubj.setIdentifier(other.getIdentifier());
+		getFixture().getMappingSubjects().add(otherSubj);
+		MappingSubject baseSubj = new MappingSubject();
+		baseSubj.setIdentifier(base.getIdentifier());
+		baseSubj.setDocumentController(baseController);
+		getFixture().getMappingSubjects().add(baseSubj);
+		getFixture().setPepperMapperController(new PepperMapperControllerImpl(null, "sleepingBase") {
+			@Override
+			public boolean getPermissionForProcessDoument(DocumentController controller) {
+				return true;
+			}
+		});
+
+		getFixture().setBaseCorpusStructure(g2);
+		getFixture().mapSDocument();
+
+		assertEquals(DOCUMENT_STATUS.COMPLETED, baseSubj.getMappingResult());
+		assertNotNull(base.getDocumentGraph());
+		assertEquals(1, base.getDocumentGraph().getTextualDSs().size());
+		assertEquals("base sample text", base.getDocumentGraph().getTextualDSs().get(0).getText());
+		assertEquals(3, base.getDocumentGraph().getTokens().size());
+		assertNotNull(base.getDocumentGraph().getTokens().get(0).getAnnotation("baseAnno"));
+		assertEquals("x", base.getDocumentGraph().getTokens().get(0).getAnnotation("baseAnno").getValue());
+	}
+
+	/**
+	 * Tests that merging fails, when a token of the smaller text has no proper
+	 * start, since it is related to the text twice.
+	 */
+	@Test(expected = PepperModuleException.class)
+	public void testMerge_UnalignedToken() {
+		SDocument base = SaltFactory.createSDocument();
+		base.setId("base");
+		base.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		base.getDocumentGraph().createTextualDS("a sample text");
+		base.getDocumentGraph().tokenize();
+		SDocument other = SaltFactory.createSDocument();
+		other.setId("other");
+		other.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		STextualDS otherText = other.getDocumentGraph().createTextualDS("sample text");
+		other.getDocumentGraph().tokenize();
+		STextualRelation textRel = SaltFactory.createSTextualRelation();
+		textRel.setSource(other.getDocumentGraph().getTokens().get(0));
+		textRel.setTarget(otherText);
+		textRel.setStart(7);
+		textRel.setEnd(11);
+		other.getDocumentGraph().addRelation(textRel);
+
+		MergerMapper mapper = new MergerMapper();
+		mapper.setProperties(new MergerProperties());
+		for (SDocument doc : new SDocument[] { base, other }) {
+			MappingSubject subj = new MappingSubject();
+			subj.setIdentifier(doc.getIdentifier());
+			mapper.getMappingSubjects().add(subj);
+		}
+		mapper.mapSDocument();
+	}
+
+	/**
+	 * Tests merging a document into a base text, which is smaller than the
+	 * other text and contains tokens created when merging a previous document.
+	 * Those tokens have not been aligned and must not stop the merging.
+	 */
+	@Test
+	public void testMerge_CreatedTokensInSmallerBaseText() {
+		SDocument base = SaltFactory.createSDocument();
+		base.setId("base");
+		base.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		STextualDS baseText = base.getDocumentGraph().createTextualDS("sample text");
+		SToken baseTok = base.getDocumentGraph().createToken(baseText, 0, 11);
+		// make the base document the biggest one, so that it is chosen as base
+		for (int i = 0; i < 10; i++) {
+			base.getDocumentGraph().createSpan(baseTok);
+		}
+		SDocument other1 = SaltFactory.createSDocument();
+		other1.setId("other1");
+		other1.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		other1.getDocumentGraph().createTextualDS("a sample text");
+		other1.getDocumentGraph().tokenize();
+		SDocument other2 = SaltFactory.createSDocument();
+		other2.setId("other2");
+		other2.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		other2.getDocumentGraph().createTextualDS("this is a sample text");
+		other2.getDocumentGraph().tokenize();
+
+		MergerMapper mapper = new MergerMapper();
+		mapper.setProperties(new MergerProperties());
+		for (SDocument doc : new SDocument[] { base, other1, other2 }) {
+			MappingSubject subj = new MappingSubject();
+			subj.setIdentifier(doc.getIdentifier());
+			mapper.getMappingSubjects().add(subj);
+		}
+		mapper.mapSDocument();
+
+		assertEquals(1, base.getDocumentGraph().getTextualDSs().size());
+		assertTrue(base.getDocumentGraph().getTokens().contains(baseTok));
+	}
+
+	/**
+	 * Tests merging documents with so many texts, that the positions of all
+	 * pairs of texts are searched at once by the
+	 * {@link MultiPatternTextAligner}. Some base texts are contained in other
+	 * texts and some other texts are contained in base texts. The result must
+	 * be the same as searching each pair one after another.
+	 */
+	@Test
+	public void testMerge_ManyTextsMultiPattern() {
+		final int[] numOfMultiPatternSearches = new int[1];
+		SDocument multiPatternBase = mergeManyTexts(new AhoCorasickTextAligner() {
+			@Override
+			public int[][] indexOf(List<String> stringsToSearchIn, List<String> stringsToSearchFor, TextNormalizer normalizer) {
+				numOfMultiPatternSearches[0]++;
+				return super.indexOf(stringsToSearchIn, stringsToSearchFor, normalizer);
+			}
+		});
+		assertTrue(numOfMultiPatternSearches[0] > 0);
+		SDocument pairwiseBase = mergeManyTexts(new KmpTextAligner());
+
+		SDocumentGraph multiPatternGraph = multiPatternBase.getDocumentGraph();
+		SDocumentGraph pairwiseGraph = pairwiseBase.getDocumentGraph();
+		assertEquals(pairwiseGraph.getTextualDSs().size(), multiPatternGraph.getTextualDSs().size());
+		assertEquals(pairwiseGraph.getTokens().size(), multiPatternGraph.getTokens().size());
+		// each other text matches its base text, tokens are merged
+		int numOfAnnotatedTokens = 0;
+		for (SToken tok : multiPatternGraph.getTokens()) {
+			if (tok.getAnnotation("pos") != null) {
+				numOfAnnotatedTokens++;
+			}
+		}
+		assertTrue(numOfAnnotatedTokens > 0);
+		Set<Difference> diffs = pairwiseGraph.findDiffs(multiPatternGraph);
+		assertEquals(diffs + "", 0, diffs.size());
+	}
+
+	/**
+	 * Merges an other document into a base document, both having 32 texts.
+	 * For each third pair, the other text is contained in the base text, for
+	 * each third pair the base text is contained in the other text and the
+	 * remaining pairs do not match at all.
+	 * 
+	 * @return the merged base document
+	 */
+	private SDocument mergeManyTexts(TextAligner textAligner) {
+		SDocument base = SaltFactory.createSDocument();
+		base.setId("base");
+		base.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		SDocument other = SaltFactory.createSDocument();
+		other.setId("other");
+		other.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		for (int i = 0; i < 32; i++) {
+			String word = String.format("item%02d", i);
+			if (i % 3 == 0) {
+				base.getDocumentGraph().createTextualDS("the quick brown fox " + word + " jumps over the lazy dog");
+				other.getDocumentGraph().createTextualDS("brown fox " + word + " jumps");
+			} else if (i % 3 == 1) {
+				base.getDocumentGraph().createTextualDS("a lazy cat " + word);
+				other.getDocumentGraph().createTextualDS("there is a lazy cat " + word + " sleeping all day");
+			} else {
+				base.getDocumentGraph().createTextualDS("alpha " + word + " beta");
+				other.getDocumentGraph().createTextualDS("gamma " + word + " delta");
+			}
+		}
+		base.getDocumentGraph().tokenize();
+		other.getDocumentGraph().tokenize();
+		int i = 0;
+		for (SToken tok : other.getDocumentGraph().getTokens()) {
+			tok.createAnnotation(null, "pos", "pos" + i++);
+		}
+
+		MergerMapper mapper = new MergerMapper();
+		mapper.setProperties(new MergerProperties());
+		mapper.setTextAligner(textAligner);
+		for (SDocument doc : new SDocument[] { base, other }) {
+			MappingSubject subj = new MappingSubject();
+			subj.setIdentifier(doc.getIdentifier());
+			mapper.getMappingSubjects().add(subj);
+		}
+		mapper.mapSDocument();
+		return base;
+	}
 }
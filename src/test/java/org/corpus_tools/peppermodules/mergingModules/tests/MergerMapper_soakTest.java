@@ -0,0 +1,100 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.corpus_tools.pepper.modules.MappingSubject;
+import org.corpus_tools.peppermodules.mergingModules.MergerMapper;
+import org.corpus_tools.peppermodules.mergingModules.MergerProperties;
+import org.corpus_tools.salt.SaltFactory;
+import org.corpus_tools.salt.common.SDocument;
+import org.corpus_tools.salt.common.SDocumentGraph;
+import org.corpus_tools.salt.samples.SampleGenerator;
+import org.junit.Test;
+
+/**
+ * Long running tests, which depend on the garbage collector. They are not
+ * part of the default build and are run with the profile
+ * <code>soak-tests</code>:
+ * 
+ * <pre>
+ * mvn test -P soak-tests
+ * </pre>
+ */
+public class MergerMapper_soakTest {
+
+	/**
+	 * Merges thousands of slots by mappers, which are kept until the end like
+	 * the mapper controllers of the Merger, and checks that the graphs of the
+	 * deleted other documents can be garbage collected, so that the retained
+	 * heap does not grow with the number of slots.
+	 */
+	@Test
+	public void testMapSDocument_releasesOtherDocuments() throws InterruptedException {
+		int numOfSlots = 2000;
+		List<MergerMapper> mappers = new ArrayList<>();
+		List<WeakReference<SDocumentGraph>> otherGraphs = new ArrayList<>();
+		for (int i = 0; i < numOfSlots; i++) {
+			// the base document has more nodes
+			SDocument base = SaltFactory.createSDocument();
+			base.setId("base" + i);
+			base.setDocumentGraph(SaltFactory.createSDocumentGraph());
+			SampleGenerator.createPrimaryData(base);
+			SampleGenerator.createTokens(base);
+			SampleGenerator.createSyntaxStructure(base);
+
+			SDocument other = SaltFactory.createSDocument();
+			other.setId("other" + i);
+			other.setDocumentGraph(SaltFactory.createSDocumentGraph());
+			SampleGenerator.createPrimaryData(other);
+			SampleGenerator.createTokens(other);
+			SampleGenerator.createMorphologyAnnotations(other);
+			otherGraphs.add(new WeakReference<>(other.getDocumentGraph()));
+
+			MergerMapper mapper = new MergerMapper();
+			mapper.setProperties(new MergerProperties());
+			for (SDocument doc : new SDocument[] { base, other }) {
+				MappingSubject subj = new MappingSubject();
+				subj.setIdentifier(doc.getIdentifier());
+				mapper.getMappingSubjects().add(subj);
+			}
+			mapper.mapSDocument();
+			assertEquals(base, mapper.getMappingSubjects().get(0).getIdentifier().getIdentifiableElement());
+			mappers.add(mapper);
+		}
+		int numOfReachable = numOfSlots;
+		for (int i = 0; (i < 20) && (numOfReachable > 0); i++) {
+			System.gc();
+			Thread.sleep(10);
+			numOfReachable = 0;
+			for (WeakReference<SDocumentGraph> otherGraph : otherGraphs) {
+				if (otherGraph.get() != null) {
+					numOfReachable++;
+				}
+			}
+		}
+		assertEquals(0, numOfReachable);
+		// the mappers must be reachable until here
+		assertEquals(numOfSlots, mappers.size());
+	}
+}
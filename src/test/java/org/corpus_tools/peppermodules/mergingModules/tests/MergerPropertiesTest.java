@@ -17,13 +17,16 @@
  */
 package org.corpus_tools.peppermodules.mergingModules.tests;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Hashtable;
 
 import org.corpus_tools.peppermodules.mergingModules.MergerProperties;
+import org.corpus_tools.peppermodules.mergingModules.TextNormalizer;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -78,4 +81,26 @@ public class MergerPropertiesTest {
 			assertEquals(templateTable.get(key), getFixture().getEscapeMapping().get(key));
 		}
 	}
+
+	@Test
+	public void testGetTextNormalizer() {
+		TextNormalizer normalizer = getFixture().getTextNormalizer();
+		assertNotNull(normalizer);
+		assertTrue(normalizer.isPunctuation('.'));
+		assertTrue(normalizer.isPunctuation('>'));
+		assertFalse(normalizer.isPunctuation('a'));
+		assertFalse(normalizer.isPunctuation('\u00e4'));
+
+		int[] originalToNormalized = new int[9];
+		assertEquals("thaesis", normalizer.normalize(" th\u00e4s is", originalToNormalized));
+		assertArrayEquals(new int[] { 0, 0, 1, 2, 4, 5, 5, 6, 7 }, originalToNormalized);
+		assertArrayEquals(new int[] { 1, 2, 3, 3, 4, 6, 7, 8 }, normalizer.createNormalizedToOriginalMapping(" th\u00e4s is"));
+	}
+
+	@Test
+	public void testGetMaxElementsInMemory() {
+		assertEquals(Runtime.getRuntime().maxMemory() / MergerProperties.ESTIMATED_BYTES_PER_ELEMENT, getFixture().getMaxElementsInMemory());
+		getFixture().setPropertyValue(MergerProperties.PROP_MAX_ELEMENTS_IN_MEMORY, 1000L);
+		assertEquals(1000L, getFixture().getMaxElementsInMemory());
+	}
 }
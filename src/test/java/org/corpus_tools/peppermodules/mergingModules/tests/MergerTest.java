@@ -18,15 +18,23 @@
 package org.corpus_tools.peppermodules.mergingModules.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+import org.corpus_tools.pepper.modules.PepperMapper;
 import org.corpus_tools.pepper.testFramework.PepperManipulatorTest;
 import org.corpus_tools.peppermodules.mergingModules.Merger;
+import org.corpus_tools.peppermodules.mergingModules.MergerProperties;
 import org.corpus_tools.salt.SaltFactory;
 import org.corpus_tools.salt.common.SCorpus;
 import org.corpus_tools.salt.common.SCorpusGraph;
 import org.corpus_tools.salt.common.SDocument;
+import org.corpus_tools.salt.graph.Identifier;
 import org.eclipse.emf.common.util.URI;
 import org.junit.Before;
 import org.junit.Test;
@@ -292,4 +300,65 @@ public class MergerTest extends PepperManipulatorTest {
 		assertEquals("all meta-annotations: " + d2_1.getMetaAnnotations(), 2, d2_1.getMetaAnnotations().size());
 		assertEquals("all meta-annotations: " + d3_1.getMetaAnnotations(), 2, d3_1.getMetaAnnotations().size());
 	}
+
+	/**
+	 * Same as {@link #test_CorpusStructure_2()}, but documents are kept awake
+	 * until their slot is complete.
+	 */
+	@Test
+	public void test_CorpusStructure_2_keepDocumentsAwake() throws InterruptedException {
+		getFixture().getProperties().setPropertyValue(MergerProperties.PROP_KEEP_DOCUMENTS_AWAKE, true);
+		test_CorpusStructure_2();
+	}
+
+	/**
+	 * Tests that a document, which is the only one of its slot and belongs to
+	 * the base corpus structure, is completed without a mapper:
+	 * 
+	 * <pre>
+	 *   c1    |    c1   
+	 *  /  \   |    |  
+	 * d1  d2  |    d1
+	 * </pre>
+	 */
+	@Test
+	public void test_singleDocumentSlot() {
+		final List<String> mappedIds = Collections.synchronizedList(new ArrayList<String>());
+		setFixture(new Merger() {
+			@Override
+			public PepperMapper createPepperMapper(Identifier sElementId) {
+				mappedIds.add(sElementId.getId());
+				return super.createPepperMapper(sElementId);
+			}
+		});
+		getFixture().setSaltProject(SaltFactory.createSaltProject());
+
+		SCorpusGraph graph1 = SaltFactory.createSCorpusGraph();
+		SCorpus c1_1 = graph1.createCorpus(URI.createURI("/c1")).get(0);
+		SDocument d1_1 = graph1.createDocument(c1_1, "d1");
+		d1_1.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		d1_1.getDocumentGraph().createTextualDS("a sample text");
+		d1_1.getDocumentGraph().tokenize();
+		SDocument d2_1 = graph1.createDocument(c1_1, "d2");
+		d2_1.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		d2_1.getDocumentGraph().createTextualDS("another text");
+		d2_1.getDocumentGraph().tokenize();
+		getFixture().getSaltProject().addCorpusGraph(graph1);
+
+		SCorpusGraph graph2 = SaltFactory.createSCorpusGraph();
+		SCorpus c1_2 = graph2.createCorpus(URI.createURI("/c1")).get(0);
+		SDocument d1_2 = graph2.createDocument(c1_2, "d1");
+		d1_2.setDocumentGraph(SaltFactory.createSDocumentGraph());
+		d1_2.getDocumentGraph().createTextualDS("a sample text");
+		d1_2.getDocumentGraph().tokenize();
+		getFixture().getSaltProject().addCorpusGraph(graph2);
+
+		this.start();
+
+		assertEquals(2, graph1.getDocuments().size());
+		assertTrue(mappedIds.contains(d1_1.getId()));
+		assertFalse(mappedIds.contains(d2_1.getId()));
+		assertEquals("another text", d2_1.getDocumentGraph().getTextualDSs().get(0).getText());
+		assertEquals(2, d2_1.getDocumentGraph().getTokens().size());
+	}
 }
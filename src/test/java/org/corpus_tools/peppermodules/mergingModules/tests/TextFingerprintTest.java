@@ -0,0 +1,102 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.corpus_tools.peppermodules.mergingModules.KmpTextAligner;
+import org.corpus_tools.peppermodules.mergingModules.MergerProperties;
+import org.corpus_tools.peppermodules.mergingModules.TextFingerprint;
+import org.corpus_tools.peppermodules.mergingModules.TextNormalizer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextFingerprintTest {
+
+	private TextNormalizer normalizer = null;
+
+	@Before
+	public void setUp() {
+		normalizer = new MergerProperties().getTextNormalizer();
+	}
+
+	private TextFingerprint fingerprint(String text) {
+		return new TextFingerprint(text, normalizer);
+	}
+
+	@Test
+	public void testGetLength() {
+		assertEquals(19, fingerprint("thisis,asmall.example").getLength());
+		assertEquals(0, fingerprint("..").getLength());
+	}
+
+	@Test
+	public void testMayContain() {
+		TextFingerprint text = fingerprint("thisisnosmallexample.itisasmallerexample!");
+		assertTrue(text.mayContain(fingerprint("exampleitis")));
+		assertTrue(text.mayContain(fingerprint("example,itis")));
+		assertTrue(text.mayContain(fingerprint("")));
+		assertTrue(text.mayContain(fingerprint("thisisnosmallexampleitisasmallerexample")));
+		// longer
+		assertFalse(text.mayContain(fingerprint("thisisnosmallexampleitisasmallerexamples")));
+		// a character does not occur
+		assertFalse(text.mayContain(fingerprint("example.itiz")));
+		// a character occurs too often
+		assertFalse(text.mayContain(fingerprint("xxxx")));
+		// the text is a permutation of the characters
+		assertFalse(fingerprint("abcdefgh").mayContain(fingerprint("hgfedcba")));
+	}
+
+	/**
+	 * Checks that a text found by a {@link KmpTextAligner} is never rejected
+	 * for random texts over a small alphabet containing punctuations.
+	 */
+	@Test
+	public void testMayContain_neverRejectsContainedText() {
+		KmpTextAligner aligner = new KmpTextAligner();
+		Random random = new Random(42);
+		char[] alphabet = { 'a', 'b', 'c', '.', ',' };
+		int numOfFound = 0;
+		for (int i = 0; i < 2000; i++) {
+			String bigger = randomString(random, alphabet, 1 + random.nextInt(60));
+			String smaller = randomString(random, alphabet, 1 + random.nextInt(8));
+			if (random.nextBoolean()) {
+				// make it likely to be contained
+				int start = random.nextInt(bigger.length());
+				smaller = bigger.substring(start, Math.min(bigger.length(), start + smaller.length()));
+			}
+			if (aligner.indexOf(bigger, smaller, normalizer) != -1) {
+				numOfFound++;
+				assertTrue("'" + smaller + "' in '" + bigger + "'", fingerprint(bigger).mayContain(fingerprint(smaller)));
+			}
+		}
+		assertTrue(numOfFound > 0);
+	}
+
+	private static String randomString(Random random, char[] alphabet, int length) {
+		StringBuilder str = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			str.append(alphabet[random.nextInt(alphabet.length)]);
+		}
+		return str.toString();
+	}
+}
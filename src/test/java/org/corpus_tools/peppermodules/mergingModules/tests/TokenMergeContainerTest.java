@@ -0,0 +1,139 @@
+/**
+ * Copyright 2015 Humboldt-Universität zu Berlin.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *
+ */
+package org.corpus_tools.peppermodules.mergingModules.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.corpus_tools.peppermodules.mergingModules.TokenMergeContainer;
+import org.corpus_tools.salt.SaltFactory;
+import org.corpus_tools.salt.common.STextualDS;
+import org.corpus_tools.salt.common.SToken;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TokenMergeContainerTest {
+
+	private TokenMergeContainer fixture = null;
+
+	public TokenMergeContainer getFixture() {
+		return fixture;
+	}
+
+	public void setFixture(TokenMergeContainer fixture) {
+		this.fixture = fixture;
+	}
+
+	@Before
+	public void setUp() {
+		setFixture(new TokenMergeContainer());
+	}
+
+	/**
+	 * Adds more tokens than the initial capacity and checks start, length and
+	 * order of all of them.
+	 */
+	@Test
+	public void testAddAlignedToken() {
+		STextualDS text = SaltFactory.createSTextualDS();
+		List<SToken> tokens = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			SToken tok = SaltFactory.createSToken();
+			tokens.add(tok);
+			// add in reverse order of start
+			getFixture().addAlignedToken(text, tok, 3000 - i * 3, 3000 - i * 3 + 2);
+		}
+		assertEquals(tokens, getFixture().getAlignedTokens(text).getTokens());
+		for (int i = 0; i < 1000; i++) {
+			SToken tok = tokens.get(i);
+			assertEquals(3000 - i * 3, getFixture().getAlignedTokenStart(text, tok));
+			assertEquals(2, getFixture().getAlignedTokenLength(text, tok));
+			assertSame(tok, getFixture().getAlignedTokenByStart(text, 3000 - i * 3));
+			assertNull(getFixture().getAlignedTokenByStart(text, 3000 - i * 3 + 1));
+		}
+		assertEquals(-1, getFixture().getAlignedTokenStart(text, SaltFactory.createSToken()));
+		assertEquals(-1, getFixture().getAlignedTokenLength(text, SaltFactory.createSToken()));
+	}
+
+	/**
+	 * If several tokens have the same start, the one added last is found.
+	 */
+	@Test
+	public void testGetAlignedTokenByStart_lastAddedWins() {
+		STextualDS text = SaltFactory.createSTextualDS();
+		SToken tok1 = SaltFactory.createSToken();
+		SToken tok2 = SaltFactory.createSToken();
+		getFixture().addAlignedToken(text, tok1, 0, 5);
+		getFixture().addAlignedToken(text, tok2, 0, 3);
+		assertSame(tok2, getFixture().getAlignedTokenByStart(text, 0));
+
+		SToken tok3 = SaltFactory.createSToken();
+		getFixture().addAlignedToken(text, tok3, 0, 1);
+		assertSame(tok3, getFixture().getAlignedTokenByStart(text, 0));
+		assertEquals(5, getFixture().getAlignedTokenLength(text, tok1));
+	}
+
+	/**
+	 * Checks that a token is equivalent to the token with the start shifted by
+	 * the offset and the same length, and that only the token added last is
+	 * regarded for a start.
+	 */
+	@Test
+	public void testFindEquivalentTokens() {
+		STextualDS smallerText = SaltFactory.createSTextualDS();
+		STextualDS biggerText = SaltFactory.createSTextualDS();
+		SToken[] smallerTokens = new SToken[4];
+		SToken[] biggerTokens = new SToken[5];
+		for (int i = 0; i < smallerTokens.length; i++) {
+			smallerTokens[i] = SaltFactory.createSToken();
+		}
+		for (int i = 0; i < biggerTokens.length; i++) {
+			biggerTokens[i] = SaltFactory.createSToken();
+		}
+		// added in reverse order of start
+		getFixture().addAlignedToken(smallerText, smallerTokens[0], 6, 8);
+		getFixture().addAlignedToken(smallerText, smallerTokens[1], 3, 6);
+		getFixture().addAlignedToken(smallerText, smallerTokens[2], 0, 3);
+		getFixture().addAlignedToken(smallerText, smallerTokens[3], 0, 2);
+
+		getFixture().addAlignedToken(biggerText, biggerTokens[0], 0, 4);
+		getFixture().addAlignedToken(biggerText, biggerTokens[1], 4, 7);
+		// same start, but different length
+		getFixture().addAlignedToken(biggerText, biggerTokens[2], 7, 10);
+		// same start and length, but hidden by the next token
+		getFixture().addAlignedToken(biggerText, biggerTokens[3], 10, 12);
+		getFixture().addAlignedToken(biggerText, biggerTokens[4], 10, 11);
+
+		List<Pair<SToken, SToken>> equivalents = getFixture().getAlignedTokens(smallerText).findEquivalentTokens(getFixture().getAlignedTokens(biggerText), 4);
+		assertEquals(2, equivalents.size());
+		assertSame(smallerTokens[2], equivalents.get(0).getLeft());
+		assertSame(biggerTokens[1], equivalents.get(0).getRight());
+		assertSame(smallerTokens[1], equivalents.get(1).getLeft());
+		assertSame(biggerTokens[2], equivalents.get(1).getRight());
+
+		equivalents = getFixture().getAlignedTokens(smallerText).findEquivalentTokens(getFixture().getAlignedTokens(biggerText), 7);
+		assertEquals(1, equivalents.size());
+		assertSame(smallerTokens[2], equivalents.get(0).getLeft());
+		assertSame(biggerTokens[2], equivalents.get(0).getRight());
+	}
+}